@@ -7,8 +7,10 @@ import com.atomiccomics.crusoe.world.*;
 import com.google.inject.Singleton;
 
 import java.util.HashSet;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Singleton
 @RegisteredComponent
@@ -17,6 +19,9 @@ public final class Builder {
     private volatile World.Dimensions dimensions;
     private final Set<World.Coordinates> walls = new HashSet<>();
     private volatile World.Player player;
+    /* Where every entity, the player included, is standing */
+    private final Map<Integer, World.Coordinates> positions = new ConcurrentHashMap<>();
+    private final Set<World.Coordinates> occupied = ConcurrentHashMap.newKeySet();
     private volatile boolean hasPickaxe = false;
 
     @Handler(WorldResized.class)
@@ -36,7 +41,11 @@ public final class Builder {
 
     @Handler(PlayerMoved.class)
     public void handlePlayerMoved(final PlayerMoved event) {
-        this.player = event.player();
+        Optional.ofNullable(positions.put(event.entity(), event.player().position())).ifPresent(occupied::remove);
+        occupied.add(event.player().position());
+        if(event.entity() == World.PLAYER_ENTITY) {
+            this.player = event.player();
+        }
     }
 
     @Handler(ItemPickedUp.class)
@@ -60,7 +69,7 @@ public final class Builder {
 
         return dimensions.contains(location) &&
                 !walls.contains(location) &&
-                !Objects.equals(player.position(), location);
+                !occupied.contains(location);
     }
 
     public boolean canBuildWherePlayerLooking() {
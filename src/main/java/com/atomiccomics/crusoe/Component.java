@@ -2,10 +2,13 @@ package com.atomiccomics.crusoe;
 
 import com.atomiccomics.crusoe.event.Event;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -14,26 +17,93 @@ public interface Component {
 
     static Component wrap(final Object instance) {
         /*
-         * Cache the matching Methods so we only have to look them up once
+         * Chain the handlers into a single method handle bound to the instance, so dispatching an event is a run of
+         * class comparisons ending in a direct call, with no map lookups, argument arrays or reflective access checks
          */
-        final Map<Class<?>, Method> handlers = Stream.of(instance.getClass().getMethods())
+        final var handlers = Stream.of(instance.getClass().getMethods())
                 .filter(m -> m.isAnnotationPresent(Handler.class))
-                .collect(Collectors.toMap(m -> m.getAnnotation(Handler.class).value(), m -> m));
+                .toArray(Method[]::new);
 
-        return (Component) Proxy.newProxyInstance(ClassLoader.getPlatformClassLoader(), new Class<?>[]{Component.class}, (proxy, method, args) -> {
-            final List<Event<?>> batch = (List<Event<?>>)args[0];
-            for(final Event<?> event : batch) {
-                final Object payload = event.payload();
-                final Class<?> target = payload.getClass();
-
-                if(handlers.containsKey(target)) {
-                    handlers.get(target).invoke(instance, payload);
+        /* Replays go down a second chain that leaves out the handlers that only want events as they happen */
+        MethodHandle chain = MethodHandles.empty(MethodType.methodType(void.class, Object.class));
+        MethodHandle replayChain = chain;
+        try {
+            final var matches = MethodHandles.lookup().findStatic(Component.class, "matches",
+                    MethodType.methodType(boolean.class, Class.class, Object.class));
+            for(final var method : handlers) {
+                if(method.getParameterCount() != 1) {
+                    throw new IllegalStateException("Handler " + method + " must take exactly one event payload");
+                }
+                final var lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+                final var handler = lookup.unreflect(method)
+                        .bindTo(instance)
+                        .asType(MethodType.methodType(void.class, Object.class));
+                final var annotation = method.getAnnotation(Handler.class);
+                chain = MethodHandles.guardWithTest(matches.bindTo(annotation.value()), handler, chain);
+                if(annotation.replayed()) {
+                    replayChain = MethodHandles.guardWithTest(matches.bindTo(annotation.value()), handler, replayChain);
                 }
             }
-            return null;
-        });
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Unable to bind handlers of " + instance.getClass(), e);
+        }
+
+        final var dispatch = chain;
+        final var replayDispatch = replayChain;
+        final Set<Class<?>> interests = Stream.of(handlers)
+                .map(m -> m.getAnnotation(Handler.class).value())
+                .collect(Collectors.toUnmodifiableSet());
+        return new Component() {
+            @Override
+            public void process(final List<Event<?>> batch) {
+                deliver(dispatch, batch);
+            }
+
+            @Override
+            public void replay(final List<Event<?>> batch) {
+                deliver(replayDispatch, batch);
+            }
+
+            @Override
+            public Optional<Set<Class<?>>> interests() {
+                return Optional.of(interests);
+            }
+        };
+    }
+
+    private static boolean matches(final Class<?> type, final Object payload) {
+        return payload.getClass() == type;
+    }
+
+    private static void deliver(final MethodHandle dispatch, final List<Event<?>> batch) {
+        for(final Event<?> event : batch) {
+            try {
+                dispatch.invokeExact(event.payload());
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new IllegalStateException("Handler failed on " + event.name().value(), e);
+            }
+        }
     }
 
     void process(final List<Event<?>> batch);
 
+    /**
+     * Receives a batch that happened before, replayed from a journal or described by a snapshot, so the component can
+     * catch up on the state of the game. Nothing should be done about these events beyond keeping track of them;
+     * any commands issued while a replay is under way are dropped.
+     */
+    default void replay(final List<Event<?>> batch) {
+        process(batch);
+    }
+
+    /**
+     * The payload types this component wants to be sent; the engine only delivers events of these types.
+     * Components that don't declare their interests are sent every event.
+     */
+    default Optional<Set<Class<?>>> interests() {
+        return Optional.empty();
+    }
+
 }
@@ -1,41 +1,303 @@
 package com.atomiccomics.crusoe;
 
+import com.atomiccomics.crusoe.collection.MpscRingBuffer;
 import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.journal.Journal;
+import com.atomiccomics.crusoe.journal.Snapshot;
+import com.atomiccomics.crusoe.journal.Snapshots;
 import com.atomiccomics.crusoe.player.Player;
 import com.atomiccomics.crusoe.world.World;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
+/**
+ * Applies commands to the game state one at a time, in the order they were queued, and hands each resulting batch of events
+ * to the components that want it before the next command runs.
+ * Commands can come from any thread. They go into a lock-free queue, and whichever caller finds no one else applying
+ * commands becomes the sequencer and drains the queue, including anything queued by other threads in the meantime.
+ * An uncontended update therefore still takes effect before the call returns; a contended one returns at once and is
+ * applied by the thread that is already sequencing. Updates issued from inside a handler run after the batch being
+ * handled has reached every component.
+ * An engine given a {@link Journal} appends each batch to it before applying it, and commits once the queue runs dry.
+ * Given {@link Snapshots} as well, it hands off a copy of the game state whenever one is due, right after a commit,
+ * so that starting up again only has to replay the part of the journal written since.
+ */
 public class Engine {
 
-    private final List<Component> components = new LinkedList<>();
+    private static final System.Logger LOG = System.getLogger(Engine.class.getName());
 
-    private final Game.GameState gameState = new Game.GameState();
-    private final World.WorldState worldState = new World.WorldState();
-    private final Player.PlayerState playerState = new Player.PlayerState();
+    private static final int QUEUE_CAPACITY = 1024;
 
-    public void register(final Component component) {
+    /*
+     * The registered components, along with the positions of the ones each payload type seen so far should be
+     * delivered to, in registration order. Registering swaps in a fresh copy so dispatch never sees a half-built index.
+     */
+    private record Subscribers(List<Component> components, Map<Event.Type, int[]> routes) {
+
+        private int[] routeOf(final Event<?> event) {
+            /* Looked up first, so the usual hit doesn't build a lambda just to throw it away */
+            final var route = routes.get(event.type());
+            if(route != null) {
+                return route;
+            }
+            final var payloadType = event.payload().getClass();
+            return routes.computeIfAbsent(event.type(), type -> IntStream.range(0, components.size())
+                    .filter(position -> components.get(position).interests().map(i -> i.contains(payloadType)).orElse(true))
+                    .toArray());
+        }
+    }
+
+    private volatile Subscribers subscribers = new Subscribers(List.of(), new ConcurrentHashMap<>());
+
+    private final MpscRingBuffer<Runnable> commands = new MpscRingBuffer<>(QUEUE_CAPACITY);
+    private final AtomicReference<Thread> sequencer = new AtomicReference<>();
+    /* Commands queued by handlers while the sequencer is busy; only the sequencer touches these */
+    private final ArrayDeque<Runnable> followUps = new ArrayDeque<>();
+    /* Whether the batches being dispatched are being replayed rather than happening now; only the sequencer touches this */
+    private boolean replaying;
+
+    /* Only the sequencer touches these, and only restoring a snapshot replaces them */
+    private Game.GameState gameState = new Game.GameState();
+    private World.WorldState worldState = new World.WorldState();
+    private Player.PlayerState playerState = new Player.PlayerState();
+
+    private final Journal journal;
+    private final Snapshots snapshots;
+    /* The ticket of the last batch journalled, and how many events went into the journal since the last snapshot */
+    private long journalled;
+    private long unsnapshotted;
+
+    public Engine() {
+        this(null);
+    }
+
+    public Engine(final Journal journal) {
+        this.journal = journal;
+        this.snapshots = null;
+    }
+
+    public Engine(final Journal journal, final Snapshots snapshots) {
+        this.journal = Objects.requireNonNull(journal);
+        this.snapshots = Objects.requireNonNull(snapshots);
+    }
+
+    /**
+     * Stops taking snapshots, once any already handed off have been written.
+     */
+    @Cleanup
+    public void close() {
+        if(snapshots != null) {
+            snapshots.close();
+        }
+    }
+
+    public synchronized void register(final Component component) {
+        final var components = new ArrayList<>(subscribers.components());
         components.add(component);
+        subscribers = new Subscribers(List.copyOf(components), new ConcurrentHashMap<>());
     }
 
     public void updateWorld(final Function<World, List<Event<?>>> updater) {
-        final var batch = updater.apply(new World(worldState));
-        worldState.process(batch);
-        components.forEach(c -> c.process(batch));
+        submit(() -> publish(updater.apply(new World(worldState)), worldState::process));
+    }
+
+    /**
+     * Applies several commands as one, each seeing the world as the ones before it left it, and delivers everything
+     * they produced to components as a single batch. If any command fails, none of them take effect.
+     */
+    public void updateWorld(final List<Function<World, List<Event<?>>>> updaters) {
+        submit(() -> {
+            final var scratch = worldState.copy();
+            final var batch = new ArrayList<Event<?>>();
+            for(final var updater : updaters) {
+                final var events = updater.apply(new World(scratch));
+                scratch.process(events);
+                batch.addAll(events);
+            }
+            publish(batch, worldState::process);
+        });
     }
 
     public void updatePlayer(final Function<Player, List<Event<?>>> updater) {
-        final var batch = updater.apply(new Player(playerState));
-        playerState.process(batch);
-        components.forEach(c -> c.process(batch));
+        submit(() -> publish(updater.apply(new Player(playerState)), playerState::process));
     }
 
     public void updateGame(final Function<Game, List<Event<?>>> updater) {
-        final var batch = updater.apply(new Game(gameState));
-        gameState.process(batch);
-        components.forEach(c -> c.process(batch));
+        submit(() -> publish(updater.apply(new Game(gameState)), gameState::process));
+    }
+
+    /**
+     * Whether there's a journal holding an earlier game for {@link #replayJournal()} to pick up.
+     */
+    public boolean hasHistory() {
+        return journal != null && !journal.isEmpty();
+    }
+
+    /**
+     * Rebuilds the game state from the journal, handing every batch in it to components through
+     * {@link Component#replay(List)}. With snapshots, the state starts from the latest one instead, described to
+     * components as a single batch, and only the part of the journal written after it is replayed.
+     * Whatever handlers try to update while this runs is dropped, since the journal already holds what came of it.
+     * Meant to be called once, after components have registered and before anything else updates the engine.
+     */
+    public void replayJournal() {
+        if(journal == null) {
+            throw new IllegalStateException("This engine keeps no journal");
+        }
+        submit(() -> {
+            replaying = true;
+            try {
+                final var snapshot = snapshots != null ? snapshots.latest() : Optional.<Snapshot>empty();
+                snapshot.ifPresent(this::restore);
+                journal.replay(snapshot.map(Snapshot::position).orElse(Journal.Position.START), batch -> {
+                    worldState.process(batch);
+                    playerState.process(batch);
+                    gameState.process(batch);
+                    unsnapshotted += batch.size();
+                    dispatch(batch);
+                });
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                replaying = false;
+            }
+        });
+    }
+
+    private void restore(final Snapshot snapshot) {
+        worldState = snapshot.world().copy();
+        playerState = snapshot.player().copy();
+        gameState = snapshot.game().copy();
+        if(!subscribers.components().isEmpty()) {
+            dispatch(snapshot.describe());
+        }
+    }
+
+    private void publish(final List<Event<?>> batch, final Consumer<List<Event<?>>> state) {
+        if(journal != null && !batch.isEmpty()) {
+            journalled = journal.append(batch);
+            unsnapshotted += batch.size();
+        }
+        state.accept(batch);
+        dispatch(batch);
+    }
+
+    private void submit(final Runnable command) {
+        if(sequencer.get() == Thread.currentThread()) {
+            if(replaying) {
+                LOG.log(System.Logger.Level.DEBUG, "Dropped a command issued during replay");
+            } else {
+                followUps.add(command);
+            }
+            return;
+        }
+        while(!commands.offer(command)) {
+            /* Full; help empty it rather than wait, unless someone else already is */
+            if(!drain(null)) {
+                Thread.yield();
+            }
+        }
+        drain(command);
+    }
+
+    /*
+     * Applies queued commands until there are none left, provided no other thread is already doing so, and reports
+     * whether this thread took a turn. A failure in the caller's own command is rethrown to it; failures in commands
+     * queued by others are logged, since their callers have long since returned.
+     */
+    private boolean drain(final Runnable own) {
+        RuntimeException failure = null;
+        var sequenced = false;
+        /* Check again after letting go, in case something was queued just as the last command finished */
+        while(!commands.isEmpty() && sequencer.compareAndSet(null, Thread.currentThread())) {
+            sequenced = true;
+            try {
+                for(var command = next(); command != null; command = next()) {
+                    try {
+                        command.run();
+                    } catch (final RuntimeException e) {
+                        if(command == own) {
+                            failure = e;
+                        } else {
+                            LOG.log(System.Logger.Level.ERROR, "Queued command failed", e);
+                        }
+                    }
+                }
+                if(journal != null) {
+                    journal.commit(journalled);
+                }
+                if(snapshots != null && snapshots.isDue(unsnapshotted)) {
+                    /* Everything journalled so far is on disk and reflected in the state, so the two line up exactly */
+                    snapshots.save(new Snapshot(journal.end(), worldState.copy(), playerState.copy(), gameState.copy()));
+                    unsnapshotted = 0;
+                }
+            } finally {
+                followUps.clear();
+                sequencer.set(null);
+            }
+        }
+        if(failure != null) {
+            throw failure;
+        }
+        return sequenced;
+    }
+
+    private Runnable next() {
+        final var followUp = followUps.poll();
+        return followUp != null ? followUp : commands.poll();
+    }
+
+    private void dispatch(final List<Event<?>> batch) {
+        if(batch.isEmpty()) {
+            return;
+        }
+        final var subscribers = this.subscribers;
+        final var components = subscribers.components();
+        if(batch.size() == 1) {
+            for(final var position : subscribers.routeOf(batch.get(0))) {
+                deliver(components.get(position), batch);
+            }
+            return;
+        }
+
+        /* Split the batch per component so each sees only the events it wants, in their original order */
+        final List<List<Event<?>>> deliveries = new ArrayList<>(components.size());
+        for(int position = 0; position < components.size(); position++) {
+            deliveries.add(null);
+        }
+        for(final var event : batch) {
+            for(final var position : subscribers.routeOf(event)) {
+                if(deliveries.get(position) == null) {
+                    deliveries.set(position, new ArrayList<>());
+                }
+                deliveries.get(position).add(event);
+            }
+        }
+        for(int position = 0; position < components.size(); position++) {
+            if(deliveries.get(position) != null) {
+                deliver(components.get(position), deliveries.get(position));
+            }
+        }
+    }
+
+    private void deliver(final Component component, final List<Event<?>> batch) {
+        if(replaying) {
+            component.replay(batch);
+        } else {
+            component.process(batch);
+        }
     }
 
 }
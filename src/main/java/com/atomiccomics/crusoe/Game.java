@@ -1,6 +1,7 @@
 package com.atomiccomics.crusoe;
 
 import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.Reducer;
 
 import java.util.Collections;
 import java.util.LinkedList;
@@ -9,9 +10,18 @@ import java.util.List;
 public final class Game {
 
     public static final class GameState {
-        private boolean isRunning = false;
-        private boolean playerSelected = false;
-        private boolean wallBlueprintActivated = false;
+        private static final Reducer<GameState> REDUCER = Reducer.<GameState>builder()
+                .on(GamePaused.class, GameState::handleGamePaused)
+                .on(GameResumed.class, GameState::handleGameResumed)
+                .on(PlayerSelected.class, GameState::handlePlayerSelected)
+                .on(PlayerDeselected.class, GameState::handlePlayerDeselected)
+                .on(WallBlueprintActivated.class, GameState::handleWallBlueprintActivated)
+                .on(WallBlueprintDeactivated.class, GameState::handleWallBlueprintDeactivated)
+                .build();
+
+        private volatile boolean isRunning = false;
+        private volatile boolean playerSelected = false;
+        private volatile boolean wallBlueprintActivated = false;
 
         public GameState handleGamePaused(final Event<GamePaused> event) {
             isRunning = false;
@@ -44,17 +54,31 @@ public final class Game {
         }
 
         public GameState process(final List<Event<?>> batch) {
-            for(final var event : batch) {
-                switch(event.name().value()) {
-                    case "GamePaused" -> handleGamePaused((Event<GamePaused>)event);
-                    case "GameResumed" -> handleGameResumed((Event<GameResumed>)event);
-                    case "PlayerSelected" -> handlePlayerSelected((Event<PlayerSelected>)event);
-                    case "PlayerDeselected" -> handlePlayerDeselected((Event<PlayerDeselected>)event);
-                    case "WallBlueprintActivated" -> handleWallBlueprintActivated((Event<WallBlueprintActivated>)event);
-                    case "WallBlueprintDeactivated" -> handleWallBlueprintDeactivated((Event<WallBlueprintDeactivated>)event);
-                }
-            }
-            return this;
+            return REDUCER.reduce(this, batch);
+        }
+
+        public static GameState of(final boolean isRunning, final boolean playerSelected, final boolean wallBlueprintActivated) {
+            final var state = new GameState();
+            state.isRunning = isRunning;
+            state.playerSelected = playerSelected;
+            state.wallBlueprintActivated = wallBlueprintActivated;
+            return state;
+        }
+
+        public GameState copy() {
+            return of(isRunning, playerSelected, wallBlueprintActivated);
+        }
+
+        public boolean isRunning() {
+            return isRunning;
+        }
+
+        public boolean isPlayerSelected() {
+            return playerSelected;
+        }
+
+        public boolean isWallBlueprintActivated() {
+            return wallBlueprintActivated;
         }
     }
 
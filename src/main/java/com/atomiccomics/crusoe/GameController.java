@@ -44,6 +44,9 @@ public final class GameController {
 
         @Handler(DestinationUpdated.class)
         public void handleDestinationUpdated(final DestinationUpdated event) {
+            if(event.entity() != World.PLAYER_ENTITY) {
+                return;
+            }
             Platform.runLater(() -> {
                 hasGoal.set(true);
                 description.set("Navigating to " + event.coordinates().x() + "," + event.coordinates().y());
@@ -52,6 +55,9 @@ public final class GameController {
 
         @Handler(DestinationCleared.class)
         public void handleDestinationCleared(final DestinationCleared event) {
+            if(event.entity() != World.PLAYER_ENTITY) {
+                return;
+            }
             Platform.runLater(() -> {
                 hasGoal.set(false);
                 description.set("");
@@ -64,7 +70,9 @@ public final class GameController {
 
         @Handler(PlayerMoved.class)
         public void handlePlayerMoved(final PlayerMoved event) {
-            this.player = event.player().position();
+            if(event.entity() == World.PLAYER_ENTITY) {
+                this.player = event.player().position();
+            }
         }
     }
 
@@ -104,7 +112,6 @@ public final class GameController {
     }
 
     public void start() {
-        final var random = new Random();
         final var projection = new Projection(new World.Dimensions(WIDTH, HEIGHT), 32);
 
         final var goals = new Goals();
@@ -116,28 +123,12 @@ public final class GameController {
         engine.register(Component.wrap(goals));
         engine.register(Component.wrap(location));
 
-        engine.updateWorld(w -> w.resize(new World.Dimensions(WIDTH, HEIGHT)));
-
-        // Set up some random walls
-        final var wallCount = random.nextInt(10) + 10;
-        final var walls = IntStream.range(0, wallCount)
-                .mapToObj(i -> new World.Coordinates(random.nextInt(WIDTH), random.nextInt(HEIGHT)))
-                .collect(Collectors.toSet());
-        walls.forEach(c -> engine.updateWorld(w -> w.buildWallAt(c)));
-
-        World.Coordinates candidateStartingLocation;
-        do {
-            candidateStartingLocation = new World.Coordinates(random.nextInt(WIDTH), random.nextInt(HEIGHT));
-        } while(walls.contains(candidateStartingLocation));
-        final var playerStartsAt = candidateStartingLocation;
-        engine.updateWorld(w -> w.spawnPlayerAt(playerStartsAt));
-
-        World.Coordinates candidateItemLocation;
-        do {
-            candidateItemLocation = new World.Coordinates(random.nextInt(WIDTH), random.nextInt(HEIGHT));
-        } while(walls.contains(candidateItemLocation) || playerStartsAt.equals(candidateItemLocation));
-        final var pickaxeStartsAt = candidateItemLocation;
-        engine.updateWorld(w -> w.spawnItemAt(Item.PICKAXE, pickaxeStartsAt));
+        if(engine.hasHistory()) {
+            // Pick up the game where the journal left off rather than starting a new one
+            engine.replayJournal();
+        } else {
+            generateWorld();
+        }
 
         final var renderer = new Renderer(viewport);
 
@@ -188,10 +179,10 @@ public final class GameController {
                 .map(e -> new World.Coordinates((int)projection.scaleToWorldX(e.getX()), (int)projection.scaleToWorldY(e.getY())))
                 .filter(navigator::isLegalDestination)
                 .throttleFirst(100, TimeUnit.MILLISECONDS)
-                .map(dest -> p -> p.setDestination(dest));
+                .map(dest -> p -> p.setDestination(World.PLAYER_ENTITY, dest));
 
         final Observable<Function<Player, List<Event<?>>>> updateFromPlayerCancel = buttonPressed
-                .map(x -> Player::clearDestination);
+                .map(x -> p -> p.clearDestination(World.PLAYER_ENTITY));
 
         disposable.add(Observable.merge(
                 updateFromPlayerNavigate,
@@ -223,6 +214,35 @@ public final class GameController {
         engine.updateGame(Game::resume);
     }
 
+    private void generateWorld() {
+        final var random = new Random();
+
+        engine.updateWorld(w -> w.resize(new World.Dimensions(WIDTH, HEIGHT)));
+
+        // Set up some random walls
+        final var wallCount = random.nextInt(10) + 10;
+        final var walls = IntStream.range(0, wallCount)
+                .mapToObj(i -> new World.Coordinates(random.nextInt(WIDTH), random.nextInt(HEIGHT)))
+                .collect(Collectors.toSet());
+        engine.updateWorld(walls.stream()
+                .<Function<World, List<Event<?>>>>map(c -> w -> w.buildWallAt(c))
+                .collect(Collectors.toList()));
+
+        World.Coordinates candidateStartingLocation;
+        do {
+            candidateStartingLocation = new World.Coordinates(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+        } while(walls.contains(candidateStartingLocation));
+        final var playerStartsAt = candidateStartingLocation;
+        engine.updateWorld(w -> w.spawnPlayerAt(playerStartsAt));
+
+        World.Coordinates candidateItemLocation;
+        do {
+            candidateItemLocation = new World.Coordinates(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+        } while(walls.contains(candidateItemLocation) || playerStartsAt.equals(candidateItemLocation));
+        final var pickaxeStartsAt = candidateItemLocation;
+        engine.updateWorld(w -> w.spawnItemAt(Item.PICKAXE, pickaxeStartsAt));
+    }
+
     @Cleanup
     public void stop() {
         disposable.dispose();
@@ -11,4 +11,10 @@ public @interface Handler {
 
     Class<?> value();
 
+    /**
+     * Whether the handler is also sent events replayed from a journal or described by a snapshot. Handlers that act on
+     * an event rather than just keep track of it should say no, since whatever they did about it is already journalled.
+     */
+    boolean replayed() default true;
+
 }
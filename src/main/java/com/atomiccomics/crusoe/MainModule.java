@@ -1,5 +1,9 @@
 package com.atomiccomics.crusoe;
 
+import com.atomiccomics.crusoe.graph.GridAStarPathfinder;
+import com.atomiccomics.crusoe.graph.GridPathfinder;
+import com.atomiccomics.crusoe.journal.Journal;
+import com.atomiccomics.crusoe.journal.Snapshots;
 import com.atomiccomics.crusoe.player.PlayerClient;
 import com.atomiccomics.crusoe.player.ai.BuildWallActionFactory;
 import com.atomiccomics.crusoe.player.ai.PickUpPickaxeActionFactory;
@@ -10,17 +14,48 @@ import com.atomiccomics.crusoe.time.Scheduler;
 import com.atomiccomics.crusoe.world.WorldClient;
 import com.google.inject.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 public class MainModule extends AbstractModule {
 
+    public static final String JOURNAL_PROPERTY = "crusoe.journal";
+
+    private static final long SNAPSHOT_EVERY_EVENTS = 10_000;
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofMinutes(5);
+
     @Override
     protected void configure() {
-        bind(Engine.class).in(Scopes.SINGLETON);
         bind(GameController.class).in(Scopes.SINGLETON);
         bind(Scheduler.class).to(ExecutorScheduler.class).in(Scopes.SINGLETON);
+        // Grapher's grid has uniform step costs, so JumpPointSearchPathfinder can be bound here too;
+        // HierarchicalPathfinder trades slightly longer routes for much faster queries on very large worlds
+        bind(GridPathfinder.class).to(GridAStarPathfinder.class).in(Scopes.SINGLETON);
+    }
+
+    /**
+     * Journals the game to the directory named by the {@value #JOURNAL_PROPERTY} system property, if there is one,
+     * snapshotting it alongside so a restart needn't replay the whole journal.
+     */
+    @Provides
+    @Singleton
+    public Engine engine() {
+        final var directory = System.getProperty(JOURNAL_PROPERTY);
+        if(directory == null) {
+            return new Engine();
+        }
+        try {
+            final var journal = Path.of(directory);
+            return new Engine(Journal.open(journal),
+                    Snapshots.open(journal.resolve("snapshots"), SNAPSHOT_EVERY_EVENTS, SNAPSHOT_INTERVAL));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Provides
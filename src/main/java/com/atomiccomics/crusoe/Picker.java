@@ -39,6 +39,10 @@ public final class Picker {
 
     @Handler(PlayerMoved.class)
     public void handlePlayerMoved(final PlayerMoved event) {
+        if(event.entity() != World.PLAYER_ENTITY) {
+            // Only the player carries an inventory
+            return;
+        }
         if(Objects.equals(this.player, event.player().position())) {
             // Don't count turns; otherwise turning after a drop picks the item back up
             return;
@@ -51,7 +55,7 @@ public final class Picker {
         }
     }
 
-    @Handler(ItemDropped.class)
+    @Handler(value = ItemDropped.class, replayed = false)
     public void handleItemDropped(final ItemDropped event) {
         worldClient.update(w -> w.spawnItemAt(event.item(), player));
     }
@@ -0,0 +1,78 @@
+package com.atomiccomics.crusoe.collection;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producers and a single consumer.
+ * Producers claim a slot by advancing a shared tail and then publish into it; each slot carries a sequence number saying
+ * whether it is free for the producer lapping around to it or holds an element ready for the consumer, so neither side
+ * ever waits on a lock. Only one thread may poll at a time, though which thread that is may change as long as the
+ * hand-over itself is synchronized.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /* Only written by the consumer, but volatile so a consumer that has just handed over can still check for stragglers */
+    private volatile long head;
+
+    public MpscRingBuffer(final int capacity) {
+        if(capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for(int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    /**
+     * Adds the element at the back of the queue, or returns false without waiting if the queue is full.
+     */
+    public boolean offer(final E element) {
+        while(true) {
+            final var position = tail.get();
+            final var slot = (int)(position & mask);
+            final var lag = sequences.get(slot) - position;
+            if(lag < 0) {
+                return false;
+            }
+            if(lag == 0 && tail.compareAndSet(position, position + 1)) {
+                elements.lazySet(slot, element);
+                sequences.set(slot, position + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the element at the front of the queue, or returns null if no element has been published there yet.
+     */
+    public E poll() {
+        final var position = head;
+        final var slot = (int)(position & mask);
+        if(sequences.get(slot) != position + 1) {
+            return null;
+        }
+        final var element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.set(slot, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Whether no element is ready at the front of the queue. Like {@link #poll()}, only meaningful to the consumer.
+     */
+    public boolean isEmpty() {
+        final var position = head;
+        return sequences.get((int)(position & mask)) != position + 1;
+    }
+
+}
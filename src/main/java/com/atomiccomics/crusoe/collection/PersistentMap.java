@@ -0,0 +1,301 @@
+package com.atomiccomics.crusoe.collection;
+
+import java.util.*;
+
+/**
+ * An immutable hash map that shares structure between versions, so deriving a changed copy costs O(log n) instead of a full copy.
+ * Entries live in a hash array mapped trie: each level consumes five bits of the key's hash and only stores the branches
+ * that are occupied, tracked by a bitmap. Keys whose whole hash collides share a single node at the bottom.
+ * Null keys and values are not supported.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(new Branch(0, new Object[0]), 0);
+
+    private static final class Leaf<K, V> extends AbstractMap.SimpleImmutableEntry<K, V> {
+        private final int hash;
+
+        private Leaf(final int hash, final K key, final V value) {
+            super(key, value);
+            this.hash = hash;
+        }
+    }
+
+    private static final class Branch {
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Branch(final int bitmap, final Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Collision {
+        private final int hash;
+        private final Leaf<?, ?>[] leaves;
+
+        private Collision(final int hash, final Leaf<?, ?>[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+    }
+
+    private final Branch root;
+    private final int size;
+
+    private PersistentMap(final Branch root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>)EMPTY;
+    }
+
+    private static int hash(final Object key) {
+        final var h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int hashOf(final Object node) {
+        return node instanceof Leaf ? ((Leaf<?, ?>)node).hash : ((Collision)node).hash;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public V get(final Object key) {
+        final var leaf = find(key);
+        return leaf == null ? null : leaf.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> find(final Object key) {
+        if(key == null) {
+            return null;
+        }
+        final var hash = hash(key);
+        Object node = root;
+        for(int shift = 0; ; shift += BITS) {
+            if(node instanceof Branch) {
+                final var branch = (Branch)node;
+                final var bit = 1 << ((hash >>> shift) & MASK);
+                if((branch.bitmap & bit) == 0) {
+                    return null;
+                }
+                node = branch.slots[Integer.bitCount(branch.bitmap & (bit - 1))];
+            } else if(node instanceof Leaf) {
+                final var leaf = (Leaf<K, V>)node;
+                return leaf.hash == hash && leaf.getKey().equals(key) ? leaf : null;
+            } else {
+                for(final var leaf : ((Collision)node).leaves) {
+                    if(leaf.getKey().equals(key)) {
+                        return (Leaf<K, V>)leaf;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns a map that also maps the given key to the given value, leaving this one untouched.
+     */
+    public PersistentMap<K, V> plus(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final var existing = find(key);
+        if(existing != null && existing.getValue().equals(value)) {
+            return this;
+        }
+        final var leaf = new Leaf<>(hash(key), key, value);
+        return new PersistentMap<>((Branch)insert(root, 0, leaf), existing == null ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the given key, leaving this one untouched.
+     */
+    public PersistentMap<K, V> minus(final Object key) {
+        if(find(key) == null) {
+            return this;
+        }
+        final var remaining = remove(root, 0, hash(key), key);
+        return new PersistentMap<>(remaining instanceof Branch ? (Branch)remaining : branchOf(remaining, 0), size - 1);
+    }
+
+    private static Object insert(final Object node, final int shift, final Leaf<?, ?> leaf) {
+        if(node instanceof Branch) {
+            final var branch = (Branch)node;
+            final var bit = 1 << ((leaf.hash >>> shift) & MASK);
+            final var index = Integer.bitCount(branch.bitmap & (bit - 1));
+            if((branch.bitmap & bit) == 0) {
+                final var slots = new Object[branch.slots.length + 1];
+                System.arraycopy(branch.slots, 0, slots, 0, index);
+                slots[index] = leaf;
+                System.arraycopy(branch.slots, index, slots, index + 1, branch.slots.length - index);
+                return new Branch(branch.bitmap | bit, slots);
+            }
+            final var slots = branch.slots.clone();
+            slots[index] = insert(slots[index], shift + BITS, leaf);
+            return new Branch(branch.bitmap, slots);
+        } else if(node instanceof Leaf) {
+            final var existing = (Leaf<?, ?>)node;
+            if(existing.hash == leaf.hash && existing.getKey().equals(leaf.getKey())) {
+                return leaf;
+            }
+            return merge(existing, leaf, shift);
+        } else {
+            final var collision = (Collision)node;
+            if(collision.hash != leaf.hash) {
+                return merge(collision, leaf, shift);
+            }
+            final var leaves = collision.leaves;
+            for(int i = 0; i < leaves.length; i++) {
+                if(leaves[i].getKey().equals(leaf.getKey())) {
+                    final var replaced = leaves.clone();
+                    replaced[i] = leaf;
+                    return new Collision(collision.hash, replaced);
+                }
+            }
+            final var grown = Arrays.copyOf(leaves, leaves.length + 1);
+            grown[leaves.length] = leaf;
+            return new Collision(collision.hash, grown);
+        }
+    }
+
+    /* Pushes two nodes down until their hashes diverge, or gathers them into one collision if they never do */
+    private static Object merge(final Object first, final Leaf<?, ?> second, final int shift) {
+        final var firstHash = hashOf(first);
+        if(firstHash == second.hash) {
+            return new Collision(firstHash, new Leaf<?, ?>[] { (Leaf<?, ?>)first, second });
+        }
+        final var firstIndex = (firstHash >>> shift) & MASK;
+        final var secondIndex = (second.hash >>> shift) & MASK;
+        if(firstIndex == secondIndex) {
+            return new Branch(1 << firstIndex, new Object[] { merge(first, second, shift + BITS) });
+        }
+        final var slots = firstIndex < secondIndex ? new Object[] { first, second } : new Object[] { second, first };
+        return new Branch((1 << firstIndex) | (1 << secondIndex), slots);
+    }
+
+    /* Returns what should take the node's place: a smaller node, a lone leaf to be pulled up a level, or null if nothing is left */
+    private static Object remove(final Object node, final int shift, final int hash, final Object key) {
+        if(node instanceof Branch) {
+            final var branch = (Branch)node;
+            final var bit = 1 << ((hash >>> shift) & MASK);
+            final var index = Integer.bitCount(branch.bitmap & (bit - 1));
+            final var replacement = remove(branch.slots[index], shift + BITS, hash, key);
+            if(replacement != null) {
+                final var slots = branch.slots.clone();
+                slots[index] = replacement instanceof Branch && isLoneLeaf((Branch)replacement)
+                        ? ((Branch)replacement).slots[0]
+                        : replacement;
+                return new Branch(branch.bitmap, slots);
+            }
+            if(branch.slots.length == 1) {
+                return null;
+            }
+            final var slots = new Object[branch.slots.length - 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            System.arraycopy(branch.slots, index + 1, slots, index, slots.length - index);
+            final var shrunk = new Branch(branch.bitmap & ~bit, slots);
+            return shift > 0 && isLoneLeaf(shrunk) ? shrunk.slots[0] : shrunk;
+        } else if(node instanceof Leaf) {
+            return null;
+        } else {
+            final var collision = (Collision)node;
+            final var leaves = new ArrayList<Leaf<?, ?>>(Arrays.asList(collision.leaves));
+            leaves.removeIf(leaf -> leaf.getKey().equals(key));
+            return leaves.size() == 1 ? leaves.get(0) : new Collision(collision.hash, leaves.toArray(new Leaf<?, ?>[0]));
+        }
+    }
+
+    private static boolean isLoneLeaf(final Branch branch) {
+        return branch.slots.length == 1 && !(branch.slots[0] instanceof Branch);
+    }
+
+    private static Branch branchOf(final Object node, final int shift) {
+        if(node == null) {
+            return new Branch(0, new Object[0]);
+        }
+        return new Branch(1 << ((hashOf(node) >>> shift) & MASK), new Object[] { node });
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Entries<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /* Depth-first walk over the trie, keeping one cursor per level */
+    private static final class Entries<K, V> implements Iterator<Entry<K, V>> {
+        private final Deque<Object[]> nodes = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Leaf<?, ?> next;
+
+        private Entries(final Branch root) {
+            nodes.push(root.slots);
+            positions.push(0);
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while(!nodes.isEmpty()) {
+                final var slots = nodes.peek();
+                final int position = positions.pop();
+                if(position == slots.length) {
+                    nodes.pop();
+                    continue;
+                }
+                positions.push(position + 1);
+                final var slot = slots[position];
+                if(slot instanceof Leaf) {
+                    next = (Leaf<?, ?>)slot;
+                    return;
+                }
+                nodes.push(slot instanceof Branch ? ((Branch)slot).slots : ((Collision)slot).leaves);
+                positions.push(0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if(next == null) {
+                throw new NoSuchElementException();
+            }
+            final var current = (Entry<K, V>)next;
+            advance();
+            return current;
+        }
+    }
+
+}
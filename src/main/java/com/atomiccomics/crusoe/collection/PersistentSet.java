@@ -0,0 +1,49 @@
+package com.atomiccomics.crusoe.collection;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * An immutable set backed by a {@link PersistentMap}, so adding or removing an element shares everything else with the original.
+ */
+public final class PersistentSet<E> extends AbstractSet<E> {
+
+    private static final PersistentSet<?> EMPTY = new PersistentSet<>(PersistentMap.empty());
+
+    private final PersistentMap<E, Boolean> elements;
+
+    private PersistentSet(final PersistentMap<E, Boolean> elements) {
+        this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentSet<E> empty() {
+        return (PersistentSet<E>)EMPTY;
+    }
+
+    public PersistentSet<E> plus(final E element) {
+        final var updated = elements.plus(element, Boolean.TRUE);
+        return updated == elements ? this : new PersistentSet<>(updated);
+    }
+
+    public PersistentSet<E> minus(final Object element) {
+        final var updated = elements.minus(element);
+        return updated == elements ? this : new PersistentSet<>(updated);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return elements.containsKey(o);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements.keySet().iterator();
+    }
+
+}
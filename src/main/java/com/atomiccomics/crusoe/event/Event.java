@@ -1,12 +1,61 @@
 package com.atomiccomics.crusoe.event;
 
-public record Event<T>(Name name, T payload) {
+import java.util.concurrent.atomic.AtomicInteger;
+
+public record Event<T>(Type type, T payload) {
 
     public static <T> Event<T> create(T payload) {
-        return new Event<>(new Name(payload.getClass().getSimpleName()), payload);
+        return new Event<>(Type.of(payload.getClass()), payload);
+    }
+
+    public Name name() {
+        return type.name();
     }
 
     public record Name(String value) {
 
     }
+
+    /**
+     * The type of an event, interned per payload class. Each type is numbered from zero the first time its class is seen,
+     * so tables indexed by {@link #id()} can stand in for switching on names. The numbers hold for the life of the
+     * process but can differ from one run to the next, so they must never be written anywhere; the journal and snapshots
+     * use the fixed tags in {@link EventCodec} instead.
+     */
+    public static final class Type {
+
+        private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+        private static final ClassValue<Type> TYPES = new ClassValue<>() {
+            @Override
+            protected Type computeValue(final Class<?> payloadType) {
+                return new Type(NEXT_ID.getAndIncrement(), new Name(payloadType.getSimpleName()));
+            }
+        };
+
+        private final int id;
+        private final Name name;
+
+        private Type(final int id, final Name name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public static Type of(final Class<?> payloadType) {
+            return TYPES.get(payloadType);
+        }
+
+        public int id() {
+            return id;
+        }
+
+        public Name name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name.value();
+        }
+    }
 }
@@ -0,0 +1,264 @@
+package com.atomiccomics.crusoe.event;
+
+import com.atomiccomics.crusoe.*;
+import com.atomiccomics.crusoe.item.Item;
+import com.atomiccomics.crusoe.player.DestinationCleared;
+import com.atomiccomics.crusoe.player.DestinationUpdated;
+import com.atomiccomics.crusoe.player.ItemDropped;
+import com.atomiccomics.crusoe.player.ItemPickedUp;
+import com.atomiccomics.crusoe.player.RouteFound;
+import com.atomiccomics.crusoe.player.RouteNotFound;
+import com.atomiccomics.crusoe.world.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Turns events into bytes and back, writing straight into and reading straight out of a {@link ByteBuffer}.
+ * Each payload type has its own layout, introduced by a tag that must never change once anything written with it is
+ * kept around; new payload types take new tags. Numbers are written as varints, seven bits to a byte, so the small
+ * coordinates a game actually uses take a byte or two rather than four, and enums are written as their ordinals.
+ */
+public final class EventCodec {
+
+    /* Most layouts have a fixed size; the rest say how big a given payload can get */
+    private record Format<T>(int tag, Class<T> type, BiConsumer<T, ByteBuffer> writer, Function<ByteBuffer, T> reader, ToIntFunction<T> size) {
+
+        private Format(final int tag, final Class<T> type, final BiConsumer<T, ByteBuffer> writer, final Function<ByteBuffer, T> reader) {
+            this(tag, type, writer, reader, payload -> MAX_EVENT_SIZE);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void write(final Object payload, final ByteBuffer out) {
+            out.put((byte)tag);
+            writer.accept((T)payload, out);
+        }
+
+        @SuppressWarnings("unchecked")
+        private int sizeOf(final Object payload) {
+            return size.applyAsInt((T)payload);
+        }
+    }
+
+    public static final int MAX_VARINT_SIZE = 5;
+
+    /* The tag byte plus four varints covers the largest fixed-size layout */
+    public static final int MAX_EVENT_SIZE = 1 + 4 * MAX_VARINT_SIZE;
+
+    private static final Item[] ITEMS = Item.values();
+    private static final World.Direction[] DIRECTIONS = World.Direction.values();
+
+    /* Tags 2, 10 and 11 went to layouts from before events carried the entity they're about, and are never reused */
+    private static final List<Format<?>> FORMATS = List.of(
+            new Format<>(1, WorldResized.class,
+                    (e, out) -> writeDimensions(e.dimensions(), out), in -> new WorldResized(readDimensions(in))),
+            new Format<>(3, WallBuilt.class,
+                    (e, out) -> writeCoordinates(e.location(), out), in -> new WallBuilt(readCoordinates(in))),
+            new Format<>(4, WallDestroyed.class,
+                    (e, out) -> writeCoordinates(e.location(), out), in -> new WallDestroyed(readCoordinates(in))),
+            new Format<>(5, WallBlueprintPlaced.class,
+                    (e, out) -> writeCoordinates(e.location(), out), in -> new WallBlueprintPlaced(readCoordinates(in))),
+            new Format<>(6, ItemPlaced.class,
+                    (e, out) -> { writeItem(e.item(), out); writeCoordinates(e.location(), out); },
+                    in -> new ItemPlaced(readItem(in), readCoordinates(in))),
+            new Format<>(7, ItemRemoved.class,
+                    (e, out) -> { writeItem(e.item(), out); writeCoordinates(e.location(), out); },
+                    in -> new ItemRemoved(readItem(in), readCoordinates(in))),
+            new Format<>(8, ItemPickedUp.class,
+                    (e, out) -> writeItem(e.item(), out), in -> new ItemPickedUp(readItem(in))),
+            new Format<>(9, ItemDropped.class,
+                    (e, out) -> writeItem(e.item(), out), in -> new ItemDropped(readItem(in))),
+            new Format<>(12, GamePaused.class, (e, out) -> {}, in -> new GamePaused()),
+            new Format<>(13, GameResumed.class, (e, out) -> {}, in -> new GameResumed()),
+            new Format<>(14, PlayerSelected.class, (e, out) -> {}, in -> new PlayerSelected()),
+            new Format<>(15, PlayerDeselected.class, (e, out) -> {}, in -> new PlayerDeselected()),
+            new Format<>(16, WallBlueprintActivated.class, (e, out) -> {}, in -> new WallBlueprintActivated()),
+            new Format<>(17, WallBlueprintDeactivated.class, (e, out) -> {}, in -> new WallBlueprintDeactivated()),
+            new Format<>(18, PlayerMoved.class,
+                    (e, out) -> { writeVarint(e.entity(), out); writePlayer(e.player(), out); },
+                    in -> new PlayerMoved(readVarint(in), readPlayer(in))),
+            new Format<>(19, DestinationUpdated.class,
+                    (e, out) -> { writeVarint(e.entity(), out); writeCoordinates(e.coordinates(), out); },
+                    in -> new DestinationUpdated(readVarint(in), readCoordinates(in))),
+            new Format<>(20, DestinationCleared.class,
+                    (e, out) -> writeVarint(e.entity(), out), in -> new DestinationCleared(readVarint(in))),
+            new Format<>(21, RouteFound.class,
+                    (e, out) -> {
+                        writeVarint(e.entity(), out);
+                        writeCoordinates(e.start(), out);
+                        writeCoordinates(e.destination(), out);
+                        writeDirections(e.steps(), out);
+                    },
+                    in -> new RouteFound(readVarint(in), readCoordinates(in), readCoordinates(in), readDirections(in)),
+                    /* Every direction's ordinal fits in a single byte */
+                    e -> 1 + 6 * MAX_VARINT_SIZE + e.steps().size()),
+            new Format<>(22, RouteNotFound.class,
+                    (e, out) -> { writeVarint(e.entity(), out); writeCoordinates(e.destination(), out); },
+                    in -> new RouteNotFound(readVarint(in), readCoordinates(in))));
+
+    private static final EventTable<Format<?>> BY_TYPE;
+    private static final Format<?>[] BY_TAG;
+
+    static {
+        final var byType = EventTable.<Format<?>>builder();
+        BY_TAG = new Format<?>[FORMATS.stream().mapToInt(Format::tag).max().orElse(0) + 1];
+        for(final var format : FORMATS) {
+            byType.put(format.type(), format);
+            BY_TAG[format.tag()] = format;
+        }
+        BY_TYPE = byType.build();
+    }
+
+    private EventCodec() {
+
+    }
+
+    /**
+     * Writes the batch as a count followed by each event, returning a buffer ready to be read.
+     */
+    public static ByteBuffer encode(final List<Event<?>> batch) {
+        var size = MAX_VARINT_SIZE;
+        for(final var event : batch) {
+            size += sizeOf(event);
+        }
+        final var out = ByteBuffer.allocate(size);
+        writeVarint(batch.size(), out);
+        for(final var event : batch) {
+            write(event, out);
+        }
+        return out.flip();
+    }
+
+    public static List<Event<?>> decode(final ByteBuffer in) {
+        final var count = readVarint(in);
+        final var batch = new ArrayList<Event<?>>(count);
+        for(int i = 0; i < count; i++) {
+            batch.add(read(in));
+        }
+        return batch;
+    }
+
+    /**
+     * The most bytes writing the event can take; {@link #MAX_EVENT_SIZE} unless its layout can grow, as a route's does.
+     */
+    public static int sizeOf(final Event<?> event) {
+        return formatOf(event).sizeOf(event.payload());
+    }
+
+    /**
+     * Writes a single event, taking at most {@link #sizeOf(Event)} bytes.
+     */
+    public static void write(final Event<?> event, final ByteBuffer out) {
+        formatOf(event).write(event.payload(), out);
+    }
+
+    private static Format<?> formatOf(final Event<?> event) {
+        final var format = BY_TYPE.get(event);
+        if(format == null) {
+            throw new IllegalArgumentException("No format for " + event.name().value());
+        }
+        return format;
+    }
+
+    public static Event<?> read(final ByteBuffer in) {
+        final var tag = in.get();
+        if(tag <= 0 || tag >= BY_TAG.length || BY_TAG[tag] == null) {
+            throw new IllegalArgumentException("Unknown event tag " + tag);
+        }
+        return Event.create(BY_TAG[tag].reader().apply(in));
+    }
+
+    /**
+     * Writes the value seven bits at a time, lowest first, with the top bit of each byte set if more follow.
+     * Negative values always take {@link #MAX_VARINT_SIZE} bytes.
+     */
+    public static void writeVarint(final int value, final ByteBuffer out) {
+        var remaining = value;
+        while((remaining & ~0x7F) != 0) {
+            out.put((byte)(remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        out.put((byte)remaining);
+    }
+
+    public static int readVarint(final ByteBuffer in) {
+        var value = 0;
+        for(int shift = 0; shift < MAX_VARINT_SIZE * 7; shift += 7) {
+            final var next = in.get();
+            value |= (next & 0x7F) << shift;
+            if(next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint runs past " + MAX_VARINT_SIZE + " bytes");
+    }
+
+    public static void writeCoordinates(final World.Coordinates coordinates, final ByteBuffer out) {
+        writeVarint(coordinates.x(), out);
+        writeVarint(coordinates.y(), out);
+    }
+
+    public static World.Coordinates readCoordinates(final ByteBuffer in) {
+        final var x = readVarint(in);
+        return new World.Coordinates(x, readVarint(in));
+    }
+
+    public static void writeDimensions(final World.Dimensions dimensions, final ByteBuffer out) {
+        writeVarint(dimensions.width(), out);
+        writeVarint(dimensions.height(), out);
+    }
+
+    public static World.Dimensions readDimensions(final ByteBuffer in) {
+        final var width = readVarint(in);
+        return new World.Dimensions(width, readVarint(in));
+    }
+
+    public static void writePlayer(final World.Player player, final ByteBuffer out) {
+        writeCoordinates(player.position(), out);
+        writeVarint(player.orientation().ordinal(), out);
+    }
+
+    public static World.Player readPlayer(final ByteBuffer in) {
+        final var position = readCoordinates(in);
+        return new World.Player(position, ordinal(DIRECTIONS, readVarint(in)));
+    }
+
+    public static void writeDirections(final List<World.Direction> directions, final ByteBuffer out) {
+        writeVarint(directions.size(), out);
+        for(final var direction : directions) {
+            out.put((byte)direction.ordinal());
+        }
+    }
+
+    public static List<World.Direction> readDirections(final ByteBuffer in) {
+        final var count = readVarint(in);
+        if(count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Route of " + count + " steps runs past the end of the input");
+        }
+        final var directions = new ArrayList<World.Direction>(count);
+        for(int i = 0; i < count; i++) {
+            directions.add(ordinal(DIRECTIONS, in.get()));
+        }
+        return directions;
+    }
+
+    public static void writeItem(final Item item, final ByteBuffer out) {
+        writeVarint(item.ordinal(), out);
+    }
+
+    public static Item readItem(final ByteBuffer in) {
+        return ordinal(ITEMS, readVarint(in));
+    }
+
+    private static <E extends Enum<E>> E ordinal(final E[] values, final int ordinal) {
+        if(ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("No " + values.getClass().getComponentType().getSimpleName() + " with ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.atomiccomics.crusoe.event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable lookup from event types to values, stored in an array indexed by {@link Event.Type#id()}.
+ */
+public final class EventTable<V> {
+
+    private final Object[] entries;
+
+    private EventTable(final Object[] entries) {
+        this.entries = entries;
+    }
+
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final Event<?> event) {
+        final var id = event.type().id();
+        return id < entries.length ? (V)entries[id] : null;
+    }
+
+    public static final class Builder<V> {
+        private final Map<Event.Type, V> entries = new HashMap<>();
+
+        private Builder() {
+
+        }
+
+        public Builder<V> put(final Class<?> payloadType, final V value) {
+            entries.put(Event.Type.of(payloadType), value);
+            return this;
+        }
+
+        public EventTable<V> build() {
+            final var table = new Object[entries.keySet().stream().mapToInt(Event.Type::id).max().orElse(-1) + 1];
+            entries.forEach((type, value) -> table[type.id()] = value);
+            return new EventTable<>(table);
+        }
+    }
+
+}
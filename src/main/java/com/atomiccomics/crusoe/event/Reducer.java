@@ -0,0 +1,51 @@
+package com.atomiccomics.crusoe.event;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Folds batches of events into a piece of state, picking the step for each event from an {@link EventTable}.
+ * Events with no step registered leave the state as it is.
+ */
+public final class Reducer<S> {
+
+    private final EventTable<BiFunction<S, Event<?>, S>> steps;
+
+    private Reducer(final EventTable<BiFunction<S, Event<?>, S>> steps) {
+        this.steps = steps;
+    }
+
+    public static <S> Builder<S> builder() {
+        return new Builder<>();
+    }
+
+    public S reduce(final S state, final List<Event<?>> batch) {
+        var updatedState = state;
+        for(final var event : batch) {
+            final var step = steps.get(event);
+            if(step != null) {
+                updatedState = step.apply(updatedState, event);
+            }
+        }
+        return updatedState;
+    }
+
+    public static final class Builder<S> {
+        private final EventTable.Builder<BiFunction<S, Event<?>, S>> steps = EventTable.builder();
+
+        private Builder() {
+
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> Builder<S> on(final Class<T> payloadType, final BiFunction<S, Event<T>, S> step) {
+            steps.put(payloadType, (state, event) -> step.apply(state, (Event<T>)event));
+            return this;
+        }
+
+        public Reducer<S> build() {
+            return new Reducer<>(steps.build());
+        }
+    }
+
+}
@@ -1,23 +1,97 @@
 package com.atomiccomics.crusoe.graph;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.ToLongBiFunction;
 
 public final class AStarPathfinder implements Pathfinder {
 
-    private static final class WeightedNode<T> implements Comparable<WeightedNode<T>> {
+    /* Every node reached gets one of these, which doubles as its entry in the frontier, so pushing allocates nothing more */
+    private static final class Visit<N, E> {
+        private final Graph.Node<N> node;
+        private long accumulatedCost;
+        private long weight;
+        private Graph.Edge<N, E> via;
+        /* Where in the frontier this sits, or NOT_QUEUED */
+        private int position = NOT_QUEUED;
 
-        private final Graph.Node<T> node;
-        private final long weight;
-
-        private WeightedNode(final Graph.Node<T> node, final long weight) {
+        private Visit(final Graph.Node<N> node, final long accumulatedCost, final Graph.Edge<N, E> via) {
             this.node = node;
-            this.weight = weight;
+            this.accumulatedCost = accumulatedCost;
+            this.via = via;
+        }
+    }
+
+    private static final int NOT_QUEUED = -1;
+
+    /* A binary min-heap on weight; a visit already queued moves up in place when it gets cheaper rather than being queued again */
+    private static final class Frontier<N, E> {
+        @SuppressWarnings("unchecked")
+        private Visit<N, E>[] heap = new Visit[64];
+        private int size;
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void offer(final Visit<N, E> visit) {
+            if(visit.position == NOT_QUEUED) {
+                if(size == heap.length) {
+                    heap = Arrays.copyOf(heap, size * 2);
+                }
+                visit.position = size++;
+                heap[visit.position] = visit;
+            }
+            siftUp(visit.position);
+        }
+
+        private Visit<N, E> poll() {
+            final var head = heap[0];
+            head.position = NOT_QUEUED;
+            final var last = heap[--size];
+            heap[size] = null;
+            if(size > 0) {
+                heap[0] = last;
+                last.position = 0;
+                siftDown(0);
+            }
+            return head;
+        }
+
+        private void siftUp(int position) {
+            final var visit = heap[position];
+            while(position > 0) {
+                final var parent = (position - 1) >>> 1;
+                if(heap[parent].weight <= visit.weight) {
+                    break;
+                }
+                place(heap[parent], position);
+                position = parent;
+            }
+            place(visit, position);
+        }
+
+        private void siftDown(int position) {
+            final var visit = heap[position];
+            while(true) {
+                var child = 2 * position + 1;
+                if(child >= size) {
+                    break;
+                }
+                if(child + 1 < size && heap[child + 1].weight < heap[child].weight) {
+                    child++;
+                }
+                if(visit.weight <= heap[child].weight) {
+                    break;
+                }
+                place(heap[child], position);
+                position = child;
+            }
+            place(visit, position);
         }
 
-        @Override
-        public int compareTo(final WeightedNode o) {
-            return Long.compare(weight, o.weight);
+        private void place(final Visit<N, E> visit, final int position) {
+            heap[position] = visit;
+            visit.position = position;
         }
     }
 
@@ -25,37 +99,45 @@ public final class AStarPathfinder implements Pathfinder {
     public <N, E> List<Graph.Edge<N, E>> findPathFrom(final Graph.Node<N> start,
                                          final Graph.Node<N> end,
                                          final Graph<N, E> graph,
-                                         final BiFunction<Graph.Node<N>, Graph.Node<N>, Long> heuristic) throws ImpossiblePathException {
+                                         final ToLongBiFunction<Graph.Node<N>, Graph.Node<N>> heuristic) throws ImpossiblePathException {
 
-        final var frontier = new PriorityQueue<WeightedNode<N>>();
-        frontier.add(new WeightedNode<N>(start, 0L));
-        final var accumulatedCost = new HashMap<Graph.Node<N>, Long>();
-        accumulatedCost.put(start, 0L);
-        final var via = new HashMap<Graph.Node<N>, Graph.Edge<N, E>>();
+        final var frontier = new Frontier<N, E>();
+        final var visits = new HashMap<Graph.Node<N>, Visit<N, E>>();
+        final var origin = new Visit<N, E>(start, 0L, null);
+        visits.put(start, origin);
+        frontier.offer(origin);
 
         while(!frontier.isEmpty()) {
-            final var current = frontier.remove();
+            final var current = frontier.poll();
 
             if(current.node == end) {
                 break;
             }
 
+            final var currentCost = current.accumulatedCost;
             for(final var edge : graph.edges(current.node)) {
                 final var neighbor = edge.to();
-                final var newCost = accumulatedCost.get(current.node) + graph.cost(current.node, neighbor);
-                if(!accumulatedCost.containsKey(neighbor) || newCost < accumulatedCost.get(neighbor)) {
-                    accumulatedCost.put(neighbor, newCost);
-                    final var weight = newCost + heuristic.apply(neighbor, end);
-                    frontier.add(new WeightedNode<>(neighbor, weight));
-                    via.put(neighbor, edge);
+                final var newCost = currentCost + edge.cost();
+                var visit = visits.get(neighbor);
+                if(visit == null) {
+                    visit = new Visit<>(neighbor, newCost, edge);
+                    visits.put(neighbor, visit);
+                } else if(newCost < visit.accumulatedCost) {
+                    visit.accumulatedCost = newCost;
+                    visit.via = edge;
+                } else {
+                    continue;
                 }
+                visit.weight = newCost + heuristic.applyAsLong(neighbor, end);
+                frontier.offer(visit);
             }
         }
 
         final var route = new LinkedList<Graph.Edge<N, E>>();
         Graph.Node<N> current = end;
         do {
-            final var edge = via.get(current);
+            final var visit = visits.get(current);
+            final var edge = visit == null ? null : visit.via;
             if(edge == null) {
                 // No edge pointing to current node
                 throw new ImpossiblePathException();
@@ -0,0 +1,149 @@
+package com.atomiccomics.crusoe.graph;
+
+import java.util.*;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A* run from both ends at once, each side heading for the other's origin, until the two searches meet.
+ * The backward search follows edges into each node, so directed graphs are routed correctly too.
+ * The heuristic must be consistent in both directions; on long open routes each side only has to explore about half as far.
+ */
+public final class BidirectionalAStarPathfinder implements Pathfinder {
+
+    /*
+     * Ties on weight go to the node furthest from its origin. Both sides otherwise fan out across every node on a plateau
+     * of equal weight before they meet, which on an open grid is most of the map.
+     */
+    private static final class WeightedNode<T> implements Comparable<WeightedNode<T>> {
+
+        private final Graph.Node<T> node;
+        private final long weight;
+        private final long accumulatedCost;
+
+        private WeightedNode(final Graph.Node<T> node, final long weight, final long accumulatedCost) {
+            this.node = node;
+            this.weight = weight;
+            this.accumulatedCost = accumulatedCost;
+        }
+
+        @Override
+        public int compareTo(final WeightedNode o) {
+            final var byWeight = Long.compare(weight, o.weight);
+            return byWeight != 0 ? byWeight : Long.compare(o.accumulatedCost, accumulatedCost);
+        }
+    }
+
+    private static final class Visit<N, E> {
+        private long accumulatedCost;
+        private Graph.Edge<N, E> via;
+
+        private Visit(final long accumulatedCost, final Graph.Edge<N, E> via) {
+            this.accumulatedCost = accumulatedCost;
+            this.via = via;
+        }
+    }
+
+    private static final class Search<N, E> {
+        private final boolean forward;
+        private final Graph.Node<N> target;
+        private final PriorityQueue<WeightedNode<N>> frontier = new PriorityQueue<>();
+        private final Map<Graph.Node<N>, Visit<N, E>> visits = new HashMap<>();
+        private final Set<Graph.Node<N>> closed = new HashSet<>();
+
+        private Search(final boolean forward, final Graph.Node<N> origin, final Graph.Node<N> target) {
+            this.forward = forward;
+            this.target = target;
+            frontier.add(new WeightedNode<>(origin, 0L, 0L));
+            visits.put(origin, new Visit<>(0L, null));
+        }
+
+        /* Drops entries superseded by a cheaper visit, so the head is always a live node */
+        private WeightedNode<N> head() {
+            while(!frontier.isEmpty() && closed.contains(frontier.peek().node)) {
+                frontier.remove();
+            }
+            return frontier.peek();
+        }
+    }
+
+    private static final class Meeting<N> {
+        private long cost = Long.MAX_VALUE;
+        private Graph.Node<N> node;
+    }
+
+    @Override
+    public <N, E> List<Graph.Edge<N, E>> findPathFrom(final Graph.Node<N> start,
+                                                      final Graph.Node<N> end,
+                                                      final Graph<N, E> graph,
+                                                      final ToLongBiFunction<Graph.Node<N>, Graph.Node<N>> heuristic) throws ImpossiblePathException {
+        if(start == end) {
+            throw new ImpossiblePathException();
+        }
+
+        final var forward = new Search<N, E>(true, start, end);
+        final var backward = new Search<N, E>(false, end, start);
+        final var meeting = new Meeting<N>();
+
+        while(true) {
+            final var forwardHead = forward.head();
+            final var backwardHead = backward.head();
+            if(forwardHead == null || backwardHead == null) {
+                break;
+            }
+            /* Nothing left on either frontier can beat the best meeting once its lower bound reaches it */
+            if(forwardHead.weight >= meeting.cost || backwardHead.weight >= meeting.cost) {
+                break;
+            }
+
+            if(forward.frontier.size() <= backward.frontier.size()) {
+                expand(forward, backward, graph, heuristic, meeting);
+            } else {
+                expand(backward, forward, graph, heuristic, meeting);
+            }
+        }
+
+        if(meeting.node == null) {
+            throw new ImpossiblePathException();
+        }
+
+        final var route = new LinkedList<Graph.Edge<N, E>>();
+        for(var edge = forward.visits.get(meeting.node).via; edge != null; edge = forward.visits.get(edge.from()).via) {
+            route.addFirst(edge);
+        }
+        for(var edge = backward.visits.get(meeting.node).via; edge != null; edge = backward.visits.get(edge.to()).via) {
+            route.addLast(edge);
+        }
+        return List.copyOf(route);
+    }
+
+    private static <N, E> void expand(final Search<N, E> search, final Search<N, E> opposite, final Graph<N, E> graph,
+                                      final ToLongBiFunction<Graph.Node<N>, Graph.Node<N>> heuristic, final Meeting<N> meeting) {
+        final var current = search.frontier.remove().node;
+        search.closed.add(current);
+
+        final var currentCost = search.visits.get(current).accumulatedCost;
+        final var edges = search.forward ? graph.edges(current) : graph.edgesInto(current);
+        for(final var edge : edges) {
+            final var neighbor = search.forward ? edge.to() : edge.from();
+            final var newCost = currentCost + edge.cost();
+            final var visit = search.visits.get(neighbor);
+            if(visit == null) {
+                search.visits.put(neighbor, new Visit<>(newCost, edge));
+            } else if(newCost < visit.accumulatedCost) {
+                visit.accumulatedCost = newCost;
+                visit.via = edge;
+                search.closed.remove(neighbor);
+            } else {
+                continue;
+            }
+
+            final var reachedFromOtherSide = opposite.visits.get(neighbor);
+            if(reachedFromOtherSide != null && newCost + reachedFromOtherSide.accumulatedCost < meeting.cost) {
+                meeting.cost = newCost + reachedFromOtherSide.accumulatedCost;
+                meeting.node = neighbor;
+            }
+
+            search.frontier.add(new WeightedNode<>(neighbor, newCost + heuristic.applyAsLong(neighbor, search.target), newCost));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.atomiccomics.crusoe.graph;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class Graph<N, E> {
@@ -41,6 +42,10 @@ public final class Graph<N, E> {
         public V via() {
             return via;
         }
+
+        public long cost() {
+            return cost;
+        }
     }
 
     public static final class UndirectedGraphBuilder<N, E> {
@@ -62,7 +67,7 @@ public final class Graph<N, E> {
         }
 
         public Graph<N, E> build() {
-            return new Graph<>(Map.copyOf(nodesToEdges));
+            return new Graph<>(nodesToEdges);
         }
     }
 
@@ -84,7 +89,7 @@ public final class Graph<N, E> {
         }
 
         public Graph<N, E> build() {
-            return new Graph<>(Map.copyOf(nodesToEdges));
+            return new Graph<>(nodesToEdges);
         }
     }
 
@@ -96,16 +101,101 @@ public final class Graph<N, E> {
         return new DirectedGraphBuilder<>();
     }
 
-    private final Map<Node<N>, Set<Edge<N, E>>> nodes;
+    private static final Object NULL_VALUE = new Object();
+
+    private final Map<Node<N>, Set<Edge<N, E>>> nodes = new ConcurrentHashMap<>();
+    private final Map<Node<N>, Set<Edge<N, E>>> incoming = new ConcurrentHashMap<>();
+
+    /*
+     * Maps each value to a node holding it. Values shared by several nodes are remembered so that removing the indexed
+     * node can fall back to another one; graphs with unique values never pay for that scan.
+     */
+    private final Map<Object, Node<N>> values = new ConcurrentHashMap<>();
+    private final Set<Object> sharedValues = ConcurrentHashMap.newKeySet();
+
+    private Graph(final Map<Node<N>, Set<Edge<N, E>>> nodesToEdges) {
+        nodesToEdges.keySet().forEach(this::index);
+        nodesToEdges.forEach((node, edges) -> {
+            final Set<Edge<N, E>> copy = ConcurrentHashMap.newKeySet(edges.size());
+            copy.addAll(edges);
+            nodes.put(node, copy);
+            edges.forEach(e -> incoming.get(e.to).add(e));
+        });
+    }
+
+    private static Object key(final Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private void index(final Node<N> node) {
+        incoming.put(node, ConcurrentHashMap.newKeySet());
+        final var key = key(node.value);
+        if(values.putIfAbsent(key, node) != null) {
+            sharedValues.add(key);
+        }
+    }
+
+    private void unindex(final Node<N> node) {
+        incoming.remove(node);
+        final var key = key(node.value);
+        if(values.remove(key, node) && sharedValues.contains(key)) {
+            final var replacement = nodes.keySet().stream()
+                    .filter(n -> Objects.equals(key(n.value), key))
+                    .findFirst();
+            replacement.ifPresentOrElse(n -> values.put(key, n), () -> sharedValues.remove(key));
+        }
+    }
+
+    /*
+     * Graphs can be patched in place so that callers maintaining a large graph don't have to rebuild it for a local change.
+     */
+    public Node<N> addNode(final N value) {
+        final var node = new Node<>(value);
+        nodes.put(node, ConcurrentHashMap.newKeySet());
+        index(node);
+        return node;
+    }
+
+    public void removeNode(final Node<N> node) {
+        assertContainsNode(node);
+
+        for(final var edge : nodes.get(node)) {
+            incoming.get(edge.to).remove(edge);
+        }
+        for(final var edge : incoming.get(node)) {
+            nodes.get(edge.from).remove(edge);
+        }
+        nodes.remove(node);
+        unindex(node);
+    }
+
+    public void connect(final Node<N> from, final Node<N> to, final E via, final long cost) {
+        assertContainsNode(from);
+        assertContainsNode(to);
+
+        final var edge = new Edge<>(from, to, via, cost);
+        nodes.get(from).add(edge);
+        incoming.get(to).add(edge);
+    }
+
+    public void disconnect(final Node<N> from, final Node<N> to) {
+        assertContainsNode(from);
+
+        final var edges = nodes.get(from);
+        for(final var edge : edges) {
+            if(edge.to == to) {
+                edges.remove(edge);
+                incoming.get(to).remove(edge);
+            }
+        }
+    }
 
-    private Graph(final Map<Node<N>, Set<Edge<N, E>>> nodes) {
-        this.nodes = nodes;
+    public Set<Node<N>> nodes() {
+        return Collections.unmodifiableSet(nodes.keySet());
     }
 
     public Optional<Node<N>> node(N value) {
-        return nodes.keySet().stream()
-                .filter(n -> Objects.equals(n.value(), value))
-                .findFirst();
+        return Optional.ofNullable(values.get(key(value)));
     }
 
     public Set<Edge<N, E>> edges(final Node<N> node) {
@@ -114,6 +204,15 @@ public final class Graph<N, E> {
         return nodes.get(node);
     }
 
+    /*
+     * Edges ending at the given node, so that searches can walk the graph backwards.
+     */
+    public Set<Edge<N, E>> edgesInto(final Node<N> node) {
+        assertContainsNode(node);
+
+        return incoming.get(node);
+    }
+
     public Set<Node<N>> from(final Node<N> node) {
         assertContainsNode(node);
 
@@ -126,12 +225,9 @@ public final class Graph<N, E> {
     public Set<Node<N>> to(final Node<N> node) {
         assertContainsNode(node);
 
-        return nodes.entrySet()
+        return incoming.get(node)
                 .stream()
-                .filter(entry -> entry.getValue()
-                    .stream()
-                    .anyMatch(e -> Objects.equals(e.to, node)))
-                .map(Map.Entry::getKey)
+                .map(e -> e.from)
                 .collect(Collectors.toSet());
     }
 
@@ -139,12 +235,12 @@ public final class Graph<N, E> {
         assertContainsNode(start);
         assertContainsNode(end);
 
-        return nodes.get(start)
-                .stream()
-                .filter(e -> e.to == end)
-                .map(e -> e.cost)
-                .findFirst()
-                .orElseThrow();
+        for(final var edge : nodes.get(start)) {
+            if(edge.to == end) {
+                return edge.cost;
+            }
+        }
+        throw new NoSuchElementException("No edge connects the provided nodes");
     }
 
     private void assertContainsNode(final Node<N> node) {
@@ -0,0 +1,83 @@
+package com.atomiccomics.crusoe.graph;
+
+import java.util.Arrays;
+
+public final class Grid {
+
+    public static final int IMPASSABLE = 0;
+
+    private final int width;
+    private final int height;
+    private final int[] costs;
+
+    public Grid(final int width, final int height) {
+        if(width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive and non-zero");
+        }
+        this.width = width;
+        this.height = height;
+        this.costs = new int[Math.multiplyExact(width, height)];
+        Arrays.fill(costs, 1);
+    }
+
+    private Grid(final int width, final int height, final int[] costs) {
+        this.width = width;
+        this.height = height;
+        this.costs = costs;
+    }
+
+    /**
+     * Returns a grid with the same costs that changes independently of this one.
+     */
+    public Grid copy() {
+        return new Grid(width, height, costs.clone());
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int size() {
+        return costs.length;
+    }
+
+    public int index(final int x, final int y) {
+        return y * width + x;
+    }
+
+    public int x(final int index) {
+        return index % width;
+    }
+
+    public int y(final int index) {
+        return index / width;
+    }
+
+    public boolean contains(final int x, final int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public int cost(final int index) {
+        return costs[index];
+    }
+
+    public boolean isPassable(final int index) {
+        return costs[index] != IMPASSABLE;
+    }
+
+    public boolean isPassable(final int x, final int y) {
+        return contains(x, y) && costs[index(x, y)] != IMPASSABLE;
+    }
+
+    public void setCost(final int x, final int y, final int cost) {
+        if(cost < 0) {
+            throw new IllegalArgumentException("Cost cannot be negative");
+        }
+        costs[index(x, y)] = cost;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.atomiccomics.crusoe.graph;
+
+public final class GridAStarPathfinder implements GridPathfinder {
+
+    private static final int[] DX = { 0, 0, -1, 1, 1, 1, -1, -1 };
+    private static final int[] DY = { 1, -1, 0, 0, 1, -1, 1, -1 };
+
+    @Override
+    public int[] findPathFrom(final int start, final int end, final Grid grid, final GridHeuristic heuristic) throws ImpossiblePathException {
+        final var scratch = GridScratch.get();
+        scratch.prepare(grid.size());
+
+        final var endX = grid.x(end);
+        final var endY = grid.y(end);
+
+        scratch.relax(start, 0L, GridScratch.NOT_QUEUED);
+        scratch.offer(start, 0L, 0L);
+
+        while(scratch.heapSize > 0) {
+            final var current = scratch.poll();
+
+            if(current == end) {
+                break;
+            }
+
+            final var currentX = grid.x(current);
+            final var currentY = grid.y(current);
+            final var currentCost = scratch.accumulatedCost[current];
+            for(int d = 0; d < DX.length; d++) {
+                final var neighborX = currentX + DX[d];
+                final var neighborY = currentY + DY[d];
+                if(!grid.contains(neighborX, neighborY)) {
+                    continue;
+                }
+                final var neighbor = grid.index(neighborX, neighborY);
+                if(!grid.isPassable(neighbor)) {
+                    continue;
+                }
+
+                final var newCost = currentCost + grid.cost(neighbor);
+                if(scratch.relax(neighbor, newCost, current)) {
+                    scratch.offer(neighbor, newCost, heuristic.estimate(neighborX, neighborY, endX, endY));
+                }
+            }
+        }
+
+        if(start == end || !scratch.isVisited(end)) {
+            throw new ImpossiblePathException();
+        }
+
+        return scratch.route(start, end);
+    }
+}
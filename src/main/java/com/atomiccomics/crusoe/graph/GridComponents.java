@@ -0,0 +1,221 @@
+package com.atomiccomics.crusoe.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Labels the 8-connected regions of passable cells in a grid, so whether two cells can reach each other is a lookup rather than a search.
+ * Opening a cell merges the regions around it through a union-find over labels. Blocking a cell can split its region in two;
+ * unless the open cells around it still touch each other, a flood runs from each side in lockstep and stops as soon as all but one
+ * side has run out of cells, so the work done is proportional to the smaller pieces rather than the whole region.
+ */
+public final class GridComponents {
+
+    private static final int NONE = -1;
+
+    /* Neighbours in the order they appear walking around a cell; even entries are orthogonal */
+    private static final int[] RING_X = { 1, 1, 0, -1, -1, -1, 0, 1 };
+    private static final int[] RING_Y = { 0, 1, 1, 1, 0, -1, -1, -1 };
+
+    private final Grid grid;
+    private final int[] labels;
+    private int[] parent = new int[16];
+    private int labelCount;
+
+    public GridComponents(final Grid grid) {
+        this.grid = grid;
+        this.labels = new int[grid.size()];
+        Arrays.fill(labels, NONE);
+
+        final var queue = new ArrayDeque<Integer>();
+        for(int cell = 0; cell < grid.size(); cell++) {
+            if(labels[cell] != NONE || !grid.isPassable(cell)) {
+                continue;
+            }
+            final var label = newLabel();
+            labels[cell] = label;
+            queue.add(cell);
+            while(!queue.isEmpty()) {
+                final int current = queue.remove();
+                final var x = grid.x(current);
+                final var y = grid.y(current);
+                for(int d = 0; d < RING_X.length; d++) {
+                    if(grid.isPassable(x + RING_X[d], y + RING_Y[d])) {
+                        final var neighbor = grid.index(x + RING_X[d], y + RING_Y[d]);
+                        if(labels[neighbor] == NONE) {
+                            labels[neighbor] = label;
+                            queue.add(neighbor);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized boolean connected(final int first, final int second) {
+        return labels[first] != NONE && labels[second] != NONE && find(labels[first]) == find(labels[second]);
+    }
+
+    /**
+     * Called after the cell at the given location became passable.
+     */
+    public synchronized void opened(final int x, final int y) {
+        final var cell = grid.index(x, y);
+        if(labels[cell] != NONE) {
+            return;
+        }
+        final var label = newLabel();
+        labels[cell] = label;
+        for(int d = 0; d < RING_X.length; d++) {
+            if(grid.isPassable(x + RING_X[d], y + RING_Y[d])) {
+                union(label, labels[grid.index(x + RING_X[d], y + RING_Y[d])]);
+            }
+        }
+    }
+
+    /**
+     * Called after the cell at the given location became impassable.
+     */
+    public synchronized void blocked(final int x, final int y) {
+        final var cell = grid.index(x, y);
+        if(labels[cell] == NONE) {
+            return;
+        }
+        labels[cell] = NONE;
+
+        /* Group the open cells around the blocked one by whether they still touch without it */
+        final var open = new boolean[RING_X.length];
+        final var group = new int[RING_X.length];
+        for(int d = 0; d < RING_X.length; d++) {
+            open[d] = grid.isPassable(x + RING_X[d], y + RING_Y[d]);
+            group[d] = d;
+        }
+        for(int d = 0; d < RING_X.length; d++) {
+            final var next = (d + 1) % RING_X.length;
+            final var nextOrthogonal = (d + 2) % RING_X.length;
+            if(open[d] && open[next]) {
+                merge(group, d, next);
+            }
+            if(d % 2 == 0 && open[d] && open[nextOrthogonal]) {
+                merge(group, d, nextOrthogonal);
+            }
+        }
+
+        final var sides = new ArrayList<Integer>();
+        for(int d = 0; d < RING_X.length; d++) {
+            if(open[d] && root(group, d) == d) {
+                sides.add(grid.index(x + RING_X[d], y + RING_Y[d]));
+            }
+        }
+        if(sides.size() > 1) {
+            split(sides);
+        }
+    }
+
+    private void split(final List<Integer> sides) {
+        final var count = sides.size();
+        final var owner = new HashMap<Integer, Integer>();
+        final var sideOf = new int[count];
+        final List<ArrayDeque<Integer>> frontiers = new ArrayList<>(count);
+        final List<List<Integer>> reached = new ArrayList<>(count);
+        for(int side = 0; side < count; side++) {
+            sideOf[side] = side;
+            owner.put(sides.get(side), side);
+            frontiers.add(new ArrayDeque<>(List.of(sides.get(side))));
+            reached.add(new ArrayList<>(List.of(sides.get(side))));
+        }
+
+        /* Floods that meet belong to the same piece and are merged; stop once at most one piece is still growing */
+        var turn = 0;
+        while(growing(sideOf, frontiers) > 1) {
+            turn = (turn + 1) % count;
+            if(frontiers.get(turn).isEmpty()) {
+                continue;
+            }
+            final int current = frontiers.get(turn).remove();
+            final var x = grid.x(current);
+            final var y = grid.y(current);
+            for(int d = 0; d < RING_X.length; d++) {
+                if(!grid.isPassable(x + RING_X[d], y + RING_Y[d])) {
+                    continue;
+                }
+                final var neighbor = grid.index(x + RING_X[d], y + RING_Y[d]);
+                final var other = owner.get(neighbor);
+                if(other == null) {
+                    owner.put(neighbor, turn);
+                    frontiers.get(turn).add(neighbor);
+                    reached.get(turn).add(neighbor);
+                } else {
+                    merge(sideOf, turn, other);
+                }
+            }
+        }
+
+        /* Pieces whose floods ran dry are complete and get labels of their own; the one still growing keeps the old label */
+        final var relabelled = new HashMap<Integer, Integer>();
+        for(int side = 0; side < count; side++) {
+            final var piece = root(sideOf, side);
+            if(isGrowing(sideOf, frontiers, piece)) {
+                continue;
+            }
+            final var label = relabelled.computeIfAbsent(piece, p -> newLabel());
+            for(final var cell : reached.get(side)) {
+                labels[cell] = label;
+            }
+        }
+    }
+
+    private static int growing(final int[] sideOf, final List<ArrayDeque<Integer>> frontiers) {
+        var growing = 0;
+        for(int side = 0; side < sideOf.length; side++) {
+            if(root(sideOf, side) == side && isGrowing(sideOf, frontiers, side)) {
+                growing++;
+            }
+        }
+        return growing;
+    }
+
+    private static boolean isGrowing(final int[] sideOf, final List<ArrayDeque<Integer>> frontiers, final int piece) {
+        for(int side = 0; side < sideOf.length; side++) {
+            if(root(sideOf, side) == piece && !frontiers.get(side).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int root(final int[] sets, int member) {
+        while(sets[member] != member) {
+            member = sets[member];
+        }
+        return member;
+    }
+
+    private static void merge(final int[] sets, final int first, final int second) {
+        sets[root(sets, first)] = root(sets, second);
+    }
+
+    private int newLabel() {
+        if(labelCount == parent.length) {
+            parent = Arrays.copyOf(parent, labelCount * 2);
+        }
+        parent[labelCount] = labelCount;
+        return labelCount++;
+    }
+
+    private int find(int label) {
+        while(parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    private void union(final int first, final int second) {
+        parent[find(first)] = find(second);
+    }
+
+}
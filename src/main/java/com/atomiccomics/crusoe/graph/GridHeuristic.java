@@ -0,0 +1,26 @@
+package com.atomiccomics.crusoe.graph;
+
+@FunctionalInterface
+public interface GridHeuristic {
+
+    GridHeuristic NONE = (fromX, fromY, toX, toY) -> 0L;
+
+    GridHeuristic MANHATTAN = (fromX, fromY, toX, toY) -> Math.abs(fromX - toX) + Math.abs(fromY - toY);
+
+    GridHeuristic CHEBYSHEV = (fromX, fromY, toX, toY) -> Math.max(Math.abs(fromX - toX), Math.abs(fromY - toY));
+
+    /**
+     * Exact distance on an open 8-connected grid where straight and diagonal steps have the given costs.
+     * With equal costs this is the Chebyshev distance.
+     */
+    static GridHeuristic octile(final long straightCost, final long diagonalCost) {
+        return (fromX, fromY, toX, toY) -> {
+            final long dx = Math.abs(fromX - toX);
+            final long dy = Math.abs(fromY - toY);
+            return straightCost * Math.max(dx, dy) + (diagonalCost - straightCost) * Math.min(dx, dy);
+        };
+    }
+
+    long estimate(int fromX, int fromY, int toX, int toY);
+
+}
@@ -0,0 +1,24 @@
+package com.atomiccomics.crusoe.graph;
+
+public interface GridPathfinder {
+
+    /**
+     * Returns the cell indices visited when walking from start to end, excluding start itself.
+     */
+    int[] findPathFrom(int start, int end, Grid grid, GridHeuristic heuristic) throws ImpossiblePathException;
+
+    /**
+     * Called when the grid being routed over is replaced, e.g. because the world was resized.
+     */
+    default void gridReplaced(final Grid grid) {
+
+    }
+
+    /**
+     * Called after the cost of a single cell of the current grid changed.
+     */
+    default void cellChanged(final Grid grid, final int x, final int y) {
+
+    }
+
+}
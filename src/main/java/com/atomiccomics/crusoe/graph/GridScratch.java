@@ -0,0 +1,142 @@
+package com.atomiccomics.crusoe.graph;
+
+import java.util.Arrays;
+
+/*
+ * Everything a search touches lives in flat arrays indexed by cell, reused across queries on the same thread.
+ * Instead of clearing them we bump a stamp; a cell whose stamp is stale counts as unvisited.
+ */
+final class GridScratch {
+
+    static final int NOT_QUEUED = -1;
+
+    /*
+     * Uniform step costs leave large plateaus of equal f; breaking ties towards the smaller estimate keeps the search
+     * heading for the goal instead of fanning out across the plateau.
+     */
+    private static final int TIE_BREAK_BITS = 24;
+    private static final long TIE_BREAK_MASK = (1L << TIE_BREAK_BITS) - 1;
+
+    private static final ThreadLocal<GridScratch> SCRATCH = ThreadLocal.withInitial(GridScratch::new);
+
+    static GridScratch get() {
+        return SCRATCH.get();
+    }
+
+    long[] accumulatedCost = new long[0];
+    long[] priority = new long[0];
+    int[] via = new int[0];
+    int[] slot = new int[0];
+    int[] visited = new int[0];
+    int[] heap = new int[0];
+    int heapSize;
+    int stamp;
+
+    void prepare(final int size) {
+        if(visited.length < size) {
+            accumulatedCost = new long[size];
+            priority = new long[size];
+            via = new int[size];
+            slot = new int[size];
+            visited = new int[size];
+            heap = new int[size];
+            stamp = 0;
+        }
+        if(++stamp == 0) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        heapSize = 0;
+    }
+
+    boolean isVisited(final int cell) {
+        return visited[cell] == stamp;
+    }
+
+    /*
+     * Records the cheapest known way of reaching a cell, returning false when the cell was already reached more cheaply.
+     */
+    boolean relax(final int cell, final long cost, final int from) {
+        if(!isVisited(cell)) {
+            visited[cell] = stamp;
+            slot[cell] = NOT_QUEUED;
+        } else if(cost >= accumulatedCost[cell]) {
+            return false;
+        }
+        accumulatedCost[cell] = cost;
+        via[cell] = from;
+        return true;
+    }
+
+    int[] route(final int start, final int end) {
+        var length = 0;
+        for(int cell = end; cell != start; cell = via[cell]) {
+            length++;
+        }
+        final var route = new int[length];
+        for(int cell = end; cell != start; cell = via[cell]) {
+            route[--length] = cell;
+        }
+        return route;
+    }
+
+    void offer(final int cell, final long cost, final long estimate) {
+        priority[cell] = ((cost + estimate) << TIE_BREAK_BITS) | Math.min(estimate, TIE_BREAK_MASK);
+        if(slot[cell] == NOT_QUEUED) {
+            slot[cell] = heapSize;
+            heap[heapSize++] = cell;
+        }
+        siftUp(slot[cell]);
+    }
+
+    int poll() {
+        final var head = heap[0];
+        slot[head] = NOT_QUEUED;
+        final var last = heap[--heapSize];
+        if(heapSize > 0) {
+            heap[0] = last;
+            slot[last] = 0;
+            siftDown(0);
+        }
+        return head;
+    }
+
+    private void siftUp(int position) {
+        final var cell = heap[position];
+        final var weight = priority[cell];
+        while(position > 0) {
+            final var parent = (position - 1) >>> 1;
+            final var parentCell = heap[parent];
+            if(priority[parentCell] <= weight) {
+                break;
+            }
+            heap[position] = parentCell;
+            slot[parentCell] = position;
+            position = parent;
+        }
+        heap[position] = cell;
+        slot[cell] = position;
+    }
+
+    private void siftDown(int position) {
+        final var cell = heap[position];
+        final var weight = priority[cell];
+        final var half = heapSize >>> 1;
+        while(position < half) {
+            var child = (position << 1) + 1;
+            final var right = child + 1;
+            if(right < heapSize && priority[heap[right]] < priority[heap[child]]) {
+                child = right;
+            }
+            final var childCell = heap[child];
+            if(weight <= priority[childCell]) {
+                break;
+            }
+            heap[position] = childCell;
+            slot[childCell] = position;
+            position = child;
+        }
+        heap[position] = cell;
+        slot[cell] = position;
+    }
+}
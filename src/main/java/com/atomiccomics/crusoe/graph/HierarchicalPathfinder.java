@@ -0,0 +1,599 @@
+package com.atomiccomics.crusoe.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical A* (HPA*) over 8-connected grids.
+ * The grid is cut into square clusters; cells on either side of a cluster border that can be stepped between become entrances,
+ * and the cost and route between each pair of entrances within a cluster is cached the first time a query needs it.
+ * Queries search that small abstract graph and stitch the cached routes together, so only the legs from the start and to
+ * the end need a fresh search, each confined to a single cluster.
+ * Routes are not guaranteed to be the shortest possible, but one is always found when the end is reachable.
+ * The abstraction is kept current through {@link #gridReplaced(Grid)} and {@link #cellChanged(Grid, int, int)};
+ * a change to one cell only recomputes its own cluster, plus its neighbours when the cell lies on the cluster border.
+ */
+public final class HierarchicalPathfinder implements GridPathfinder {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+    private static final int[] DX = { 0, 0, -1, 1, 1, 1, -1, -1 };
+    private static final int[] DY = { 1, -1, 0, 0, 1, -1, 1, -1 };
+
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final int NO_ENTRANCE = -1;
+
+    /*
+     * Entrances sit at fixed points along each border, so many abstract routes tie on cost and an exact search floods
+     * every one of them. Inflating the estimate slightly lets it commit early, at the price of routes
+     * up to 1/16 longer than the best one through the same entrances.
+     */
+    private static final long INFLATION_NUMERATOR = 17;
+    private static final long INFLATION_DENOMINATOR = 16;
+
+    /* Searches within a cluster and searches of the abstract graph run back to back, so each gets its own scratch */
+    private static final ThreadLocal<GridScratch> CLUSTER_SCRATCH = ThreadLocal.withInitial(GridScratch::new);
+    private static final ThreadLocal<GridScratch> ABSTRACT_SCRATCH = ThreadLocal.withInitial(GridScratch::new);
+
+    private final class Cluster {
+        private final int id;
+        private final int minX;
+        private final int minY;
+        private final int width;
+        private final int height;
+
+        /* Pairs of {cell in this cluster, cell in a neighbouring cluster} that a single step connects */
+        private final List<int[]> crossings = new ArrayList<>();
+
+        private int[] entrances = new int[0];
+        private int[][] exits = new int[0][];
+        private volatile long[] costs;
+        private int[][] routes = new int[0][];
+        private final int[] entranceByPerimeter;
+
+        private Cluster(final int id, final int minX, final int minY, final int width, final int height) {
+            this.id = id;
+            this.minX = minX;
+            this.minY = minY;
+            this.width = width;
+            this.height = height;
+            this.entranceByPerimeter = new int[perimeterStride];
+        }
+
+        private boolean contains(final int x, final int y) {
+            return x >= minX && x < minX + width && y >= minY && y < minY + height;
+        }
+
+        private int local(final int x, final int y) {
+            return (y - minY) * clusterSize + (x - minX);
+        }
+
+        /* Every border cell gets a distinct slot, so entrances can be looked up without searching */
+        private int perimeter(final int x, final int y) {
+            final var localX = x - minX;
+            final var localY = y - minY;
+            if(localY == 0) {
+                return localX;
+            } else if(localY == height - 1) {
+                return clusterSize + localX;
+            } else if(localX == 0) {
+                return 2 * clusterSize + localY;
+            }
+            return 3 * clusterSize + localY;
+        }
+
+        /* Recomputes the entrances from the crossings; costs and routes between them are only worked out once a search needs them */
+        private void summarize(final Grid grid) {
+            final var inside = new int[crossings.size()];
+            for(int i = 0; i < inside.length; i++) {
+                inside[i] = crossings.get(i)[0];
+            }
+            final var distinct = Arrays.stream(inside).distinct().sorted().toArray();
+            Arrays.fill(entranceByPerimeter, NO_ENTRANCE);
+            for(int i = 0; i < distinct.length; i++) {
+                entranceByPerimeter[perimeter(grid.x(distinct[i]), grid.y(distinct[i]))] = i;
+            }
+
+            final var exitCounts = new int[distinct.length];
+            for(final var crossing : crossings) {
+                exitCounts[entranceByPerimeter[perimeter(grid.x(crossing[0]), grid.y(crossing[0]))]]++;
+            }
+            final var exits = new int[distinct.length][];
+            for(int i = 0; i < distinct.length; i++) {
+                exits[i] = new int[exitCounts[i]];
+            }
+            for(final var crossing : crossings) {
+                final var entrance = entranceByPerimeter[perimeter(grid.x(crossing[0]), grid.y(crossing[0]))];
+                exits[entrance][--exitCounts[entrance]] = crossing[1];
+            }
+
+            this.entrances = distinct;
+            this.exits = exits;
+            this.costs = null;
+            this.routes = new int[distinct.length * distinct.length][];
+        }
+
+        private long[] costs(final Grid grid) {
+            var measured = costs;
+            if(measured == null) {
+                synchronized(this) {
+                    measured = costs;
+                    if(measured == null) {
+                        measured = new long[entrances.length * entrances.length];
+                        for(int i = 0; i < entrances.length; i++) {
+                            final var scratch = search(this, entrances[i], -1, grid);
+                            for(int j = 0; j < entrances.length; j++) {
+                                final var other = local(grid.x(entrances[j]), grid.y(entrances[j]));
+                                measured[i * entrances.length + j] = scratch.isVisited(other) ? scratch.accumulatedCost[other] : UNREACHABLE;
+                            }
+                        }
+                        costs = measured;
+                    }
+                }
+            }
+            return measured;
+        }
+
+        private synchronized int[] route(final int from, final int to, final Grid grid) {
+            final var entrance = entranceByPerimeter[perimeter(grid.x(from), grid.y(from))];
+            final var other = entranceByPerimeter[perimeter(grid.x(to), grid.y(to))];
+            final var slot = entrance * entrances.length + other;
+            if(routes[slot] == null) {
+                routes[slot] = refine(this, from, to, grid);
+            }
+            return routes[slot];
+        }
+    }
+
+    private final int clusterSize;
+    private final int perimeterStride;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Grid grid;
+    private int clustersWide;
+    private int clustersHigh;
+    private Cluster[] clusters = new Cluster[0];
+
+    public HierarchicalPathfinder() {
+        this(DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathfinder(final int clusterSize) {
+        if(clusterSize < 2) {
+            throw new IllegalArgumentException("Clusters must be at least 2 cells wide");
+        }
+        this.clusterSize = clusterSize;
+        this.perimeterStride = 4 * clusterSize;
+    }
+
+    @Override
+    public void gridReplaced(final Grid grid) {
+        lock.writeLock().lock();
+        try {
+            if(grid != this.grid) {
+                build(grid);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void cellChanged(final Grid grid, final int x, final int y) {
+        lock.writeLock().lock();
+        try {
+            if(grid != this.grid) {
+                build(grid);
+                return;
+            }
+
+            final var changed = clusterAt(x, y);
+            final var onBorder = changed.perimeter(x, y) < 2 * clusterSize
+                    || x == changed.minX || x == changed.minX + changed.width - 1;
+            if(!onBorder) {
+                changed.summarize(grid);
+                return;
+            }
+
+            /* Only crossings touching the changed cluster can have moved; redraw them and re-summarize everyone involved */
+            final var affected = new ArrayList<Cluster>();
+            for(int dy = -1; dy <= 1; dy++) {
+                for(int dx = -1; dx <= 1; dx++) {
+                    final var cx = changed.minX / clusterSize + dx;
+                    final var cy = changed.minY / clusterSize + dy;
+                    if(cx >= 0 && cx < clustersWide && cy >= 0 && cy < clustersHigh) {
+                        affected.add(clusters[cy * clustersWide + cx]);
+                    }
+                }
+            }
+            for(final var cluster : affected) {
+                if(cluster == changed) {
+                    cluster.crossings.clear();
+                } else {
+                    cluster.crossings.removeIf(crossing -> changed.contains(grid.x(crossing[1]), grid.y(crossing[1])));
+                }
+            }
+
+            final var cx = changed.minX / clusterSize;
+            final var cy = changed.minY / clusterSize;
+            connectEast(cx, cy);
+            connectEast(cx - 1, cy);
+            connectNorth(cx, cy);
+            connectNorth(cx, cy - 1);
+            connectCorners(cx, cy);
+            connectSouthEast(cx - 1, cy + 1);
+            connectNorthEast(cx - 1, cy - 1);
+
+            for(final var cluster : affected) {
+                cluster.summarize(grid);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int[] findPathFrom(final int start, final int end, final Grid grid, final GridHeuristic heuristic) throws ImpossiblePathException {
+        if(start == end || !grid.isPassable(start) || !grid.isPassable(end)) {
+            throw new ImpossiblePathException();
+        }
+
+        if(grid != this.grid) {
+            gridReplaced(grid);
+        }
+
+        lock.readLock().lock();
+        try {
+            return route(start, end, heuristic);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] route(final int start, final int end, final GridHeuristic heuristic) throws ImpossiblePathException {
+        final var startCluster = clusterAt(grid.x(start), grid.y(start));
+        final var endCluster = clusterAt(grid.x(end), grid.y(end));
+
+        if(startCluster == endCluster) {
+            final var direct = refine(startCluster, start, end, grid);
+            if(direct != null) {
+                return direct;
+            }
+        }
+
+        final var startCosts = costsFrom(startCluster, start);
+        final var endCosts = costsFrom(endCluster, end);
+        for(int i = 0; i < endCosts.length; i++) {
+            /* Searching outwards from the end measures each step by the cell it leaves rather than the one it enters */
+            if(endCosts[i] != UNREACHABLE) {
+                endCosts[i] += grid.cost(end) - grid.cost(endCluster.entrances[i]);
+            }
+        }
+
+        final var hops = searchAbstractGraph(start, end, startCluster, endCluster, startCosts, endCosts, heuristic);
+
+        final var path = new Path();
+        var from = start;
+        for(final var hop : hops) {
+            final var fromCluster = clusterAt(grid.x(from), grid.y(from));
+            if(hop == from) {
+                continue;
+            } else if(!fromCluster.contains(grid.x(hop), grid.y(hop))) {
+                path.add(hop);
+            } else if(from == start || hop == end) {
+                path.addAll(refine(fromCluster, from, hop, grid));
+            } else {
+                path.addAll(fromCluster.route(from, hop, grid));
+            }
+            from = hop;
+        }
+        return path.toArray();
+    }
+
+    private long[] costsFrom(final Cluster cluster, final int cell) {
+        final var scratch = search(cluster, cell, -1, grid);
+        final var costs = new long[cluster.entrances.length];
+        for(int i = 0; i < costs.length; i++) {
+            final var entrance = cluster.local(grid.x(cluster.entrances[i]), grid.y(cluster.entrances[i]));
+            costs[i] = scratch.isVisited(entrance) ? scratch.accumulatedCost[entrance] : UNREACHABLE;
+        }
+        return costs;
+    }
+
+    /*
+     * A* over entrances. Each entrance is identified by its cluster and its slot on that cluster's perimeter;
+     * the start and end get the two identifiers past the last cluster. Returns the cells of each hop, ending with the end.
+     */
+    private int[] searchAbstractGraph(final int start, final int end, final Cluster startCluster, final Cluster endCluster,
+                                      final long[] startCosts, final long[] endCosts, final GridHeuristic heuristic) throws ImpossiblePathException {
+        final var startNode = clusters.length * perimeterStride;
+        final var endNode = startNode + 1;
+        final var endX = grid.x(end);
+        final var endY = grid.y(end);
+
+        final var scratch = ABSTRACT_SCRATCH.get();
+        scratch.prepare(endNode + 1);
+        scratch.relax(startNode, 0L, GridScratch.NOT_QUEUED);
+        scratch.offer(startNode, 0L, 0L);
+
+        while(scratch.heapSize > 0) {
+            final var current = scratch.poll();
+            if(current == endNode) {
+                break;
+            }
+
+            final var currentCost = scratch.accumulatedCost[current];
+            if(current == startNode) {
+                for(int i = 0; i < startCosts.length; i++) {
+                    if(startCosts[i] != UNREACHABLE) {
+                        reach(startCluster, i, currentCost + startCosts[i], current, endX, endY, heuristic, scratch);
+                    }
+                }
+                continue;
+            }
+
+            final var cluster = clusters[current / perimeterStride];
+            final var entrance = cluster.entranceByPerimeter[current % perimeterStride];
+            final var count = cluster.entrances.length;
+            final var costs = cluster.costs(grid);
+            for(int other = 0; other < count; other++) {
+                final var cost = costs[entrance * count + other];
+                if(other != entrance && cost != UNREACHABLE) {
+                    reach(cluster, other, currentCost + cost, current, endX, endY, heuristic, scratch);
+                }
+            }
+            for(final var exit : cluster.exits[entrance]) {
+                final var neighbor = clusterAt(grid.x(exit), grid.y(exit));
+                final var slot = neighbor.entranceByPerimeter[neighbor.perimeter(grid.x(exit), grid.y(exit))];
+                reach(neighbor, slot, currentCost + grid.cost(exit), current, endX, endY, heuristic, scratch);
+            }
+            if(cluster == endCluster && endCosts[entrance] != UNREACHABLE) {
+                final var cost = currentCost + endCosts[entrance];
+                if(scratch.relax(endNode, cost, current)) {
+                    scratch.offer(endNode, cost, 0L);
+                }
+            }
+        }
+
+        if(!scratch.isVisited(endNode)) {
+            throw new ImpossiblePathException();
+        }
+
+        final var nodes = scratch.route(startNode, endNode);
+        final var hops = new int[nodes.length];
+        for(int i = 0; i < nodes.length; i++) {
+            if(nodes[i] == endNode) {
+                hops[i] = end;
+            } else {
+                final var cluster = clusters[nodes[i] / perimeterStride];
+                hops[i] = cluster.entrances[cluster.entranceByPerimeter[nodes[i] % perimeterStride]];
+            }
+        }
+        return hops;
+    }
+
+    private void reach(final Cluster cluster, final int entrance, final long cost, final int from,
+                       final int endX, final int endY, final GridHeuristic heuristic, final GridScratch scratch) {
+        final var cell = cluster.entrances[entrance];
+        final var x = grid.x(cell);
+        final var y = grid.y(cell);
+        final var node = cluster.id * perimeterStride + cluster.perimeter(x, y);
+        if(scratch.relax(node, cost, from)) {
+            scratch.offer(node, cost, heuristic.estimate(x, y, endX, endY) * INFLATION_NUMERATOR / INFLATION_DENOMINATOR);
+        }
+    }
+
+    /*
+     * A* confined to one cluster, indexed by position within the cluster. Without a target it degrades to Dijkstra
+     * and explores the whole cluster. Passable cells cost at least one to enter, so Chebyshev distance never overestimates.
+     */
+    private GridScratch search(final Cluster cluster, final int source, final int target, final Grid grid) {
+        final var scratch = CLUSTER_SCRATCH.get();
+        scratch.prepare(clusterSize * clusterSize);
+
+        final var sourceLocal = cluster.local(grid.x(source), grid.y(source));
+        final var targetLocal = target < 0 ? -1 : cluster.local(grid.x(target), grid.y(target));
+        final var targetX = target < 0 ? 0 : grid.x(target);
+        final var targetY = target < 0 ? 0 : grid.y(target);
+        scratch.relax(sourceLocal, 0L, GridScratch.NOT_QUEUED);
+        scratch.offer(sourceLocal, 0L, 0L);
+
+        while(scratch.heapSize > 0) {
+            final var current = scratch.poll();
+            if(current == targetLocal) {
+                break;
+            }
+
+            final var currentX = cluster.minX + current % clusterSize;
+            final var currentY = cluster.minY + current / clusterSize;
+            final var currentCost = scratch.accumulatedCost[current];
+            for(int d = 0; d < DX.length; d++) {
+                final var neighborX = currentX + DX[d];
+                final var neighborY = currentY + DY[d];
+                if(!cluster.contains(neighborX, neighborY) || !grid.isPassable(neighborX, neighborY)) {
+                    continue;
+                }
+                final var neighbor = cluster.local(neighborX, neighborY);
+                final var newCost = currentCost + grid.cost(grid.index(neighborX, neighborY));
+                if(scratch.relax(neighbor, newCost, current)) {
+                    final var estimate = target < 0 ? 0L : Math.max(Math.abs(neighborX - targetX), Math.abs(neighborY - targetY));
+                    scratch.offer(neighbor, newCost, estimate);
+                }
+            }
+        }
+        return scratch;
+    }
+
+    /* The cells walked from one cell to another within the same cluster, or null if the cluster alone does not connect them */
+    private int[] refine(final Cluster cluster, final int from, final int to, final Grid grid) {
+        final var scratch = search(cluster, from, to, grid);
+        final var target = cluster.local(grid.x(to), grid.y(to));
+        if(!scratch.isVisited(target)) {
+            return null;
+        }
+        final var steps = scratch.route(cluster.local(grid.x(from), grid.y(from)), target);
+        for(int i = 0; i < steps.length; i++) {
+            steps[i] = grid.index(cluster.minX + steps[i] % clusterSize, cluster.minY + steps[i] / clusterSize);
+        }
+        return steps;
+    }
+
+    private void build(final Grid grid) {
+        this.grid = grid;
+        clustersWide = (grid.width() + clusterSize - 1) / clusterSize;
+        clustersHigh = (grid.height() + clusterSize - 1) / clusterSize;
+        clusters = new Cluster[clustersWide * clustersHigh];
+        for(int cy = 0; cy < clustersHigh; cy++) {
+            for(int cx = 0; cx < clustersWide; cx++) {
+                final var minX = cx * clusterSize;
+                final var minY = cy * clusterSize;
+                clusters[cy * clustersWide + cx] = new Cluster(cy * clustersWide + cx, minX, minY,
+                        Math.min(clusterSize, grid.width() - minX), Math.min(clusterSize, grid.height() - minY));
+            }
+        }
+
+        for(int cy = 0; cy < clustersHigh; cy++) {
+            for(int cx = 0; cx < clustersWide; cx++) {
+                connectEast(cx, cy);
+                connectNorth(cx, cy);
+                connectCorners(cx, cy);
+            }
+        }
+        for(final var cluster : clusters) {
+            cluster.summarize(grid);
+        }
+    }
+
+    /* How many crossings and exits the clusters hold between them, so tests can tell edits from leaking them */
+    int crossingCount() {
+        return Arrays.stream(clusters).mapToInt(cluster -> cluster.crossings.size()).sum();
+    }
+
+    int exitCount() {
+        return Arrays.stream(clusters).flatMap(cluster -> Arrays.stream(cluster.exits)).mapToInt(exits -> exits.length).sum();
+    }
+
+    private Cluster clusterAt(final int x, final int y) {
+        return clusters[(y / clusterSize) * clustersWide + x / clusterSize];
+    }
+
+    private boolean exists(final int cx, final int cy) {
+        return cx >= 0 && cx < clustersWide && cy >= 0 && cy < clustersHigh;
+    }
+
+    private void connectEast(final int cx, final int cy) {
+        if(exists(cx, cy) && exists(cx + 1, cy)) {
+            final var cluster = clusters[cy * clustersWide + cx];
+            connectAcross(cluster.minX + cluster.width - 1, cluster.minY, 0, 1, cluster.height, 1, 0);
+        }
+    }
+
+    private void connectNorth(final int cx, final int cy) {
+        if(exists(cx, cy) && exists(cx, cy + 1)) {
+            final var cluster = clusters[cy * clustersWide + cx];
+            connectAcross(cluster.minX, cluster.minY + cluster.height - 1, 1, 0, cluster.width, 0, 1);
+        }
+    }
+
+    /* Clusters that only touch at a corner can still be stepped between diagonally */
+    private void connectCorners(final int cx, final int cy) {
+        connectNorthEast(cx, cy);
+        connectSouthEast(cx, cy);
+    }
+
+    private void connectNorthEast(final int cx, final int cy) {
+        if(exists(cx, cy) && exists(cx + 1, cy + 1)) {
+            final var cluster = clusters[cy * clustersWide + cx];
+            final var maxX = cluster.minX + cluster.width - 1;
+            final var maxY = cluster.minY + cluster.height - 1;
+            connectIfPassable(maxX, maxY, maxX + 1, maxY + 1);
+        }
+    }
+
+    private void connectSouthEast(final int cx, final int cy) {
+        if(exists(cx, cy) && exists(cx + 1, cy - 1)) {
+            final var cluster = clusters[cy * clustersWide + cx];
+            final var maxX = cluster.minX + cluster.width - 1;
+            connectIfPassable(maxX, cluster.minY, maxX + 1, cluster.minY - 1);
+        }
+    }
+
+    /*
+     * Walks a shared border, one cell on each side at a time. Every run of side-by-side open pairs gets one crossing
+     * in its middle; diagonal steps get their own crossing only where no open pair is next to them, since otherwise
+     * that pair's run already connects the same cells.
+     */
+    private void connectAcross(final int x, final int y, final int stepX, final int stepY, final int length,
+                               final int normalX, final int normalY) {
+        var runStart = -1;
+        for(int i = 0; i <= length; i++) {
+            final var open = i < length && isOpenPair(x, y, stepX, stepY, normalX, normalY, i);
+            if(open && runStart < 0) {
+                runStart = i;
+            } else if(!open && runStart >= 0) {
+                final var middle = (runStart + i - 1) / 2;
+                connect(x + middle * stepX, y + middle * stepY, x + middle * stepX + normalX, y + middle * stepY + normalY);
+                runStart = -1;
+            }
+        }
+
+        for(int i = 0; i + 1 < length; i++) {
+            if(isOpenPair(x, y, stepX, stepY, normalX, normalY, i) || isOpenPair(x, y, stepX, stepY, normalX, normalY, i + 1)) {
+                continue;
+            }
+            final var ax = x + i * stepX;
+            final var ay = y + i * stepY;
+            connectIfPassable(ax, ay, ax + stepX + normalX, ay + stepY + normalY);
+            connectIfPassable(ax + stepX, ay + stepY, ax + normalX, ay + normalY);
+        }
+    }
+
+    private boolean isOpenPair(final int x, final int y, final int stepX, final int stepY,
+                               final int normalX, final int normalY, final int i) {
+        final var ax = x + i * stepX;
+        final var ay = y + i * stepY;
+        return grid.isPassable(ax, ay) && grid.isPassable(ax + normalX, ay + normalY);
+    }
+
+    private void connectIfPassable(final int x, final int y, final int otherX, final int otherY) {
+        if(grid.isPassable(x, y) && grid.isPassable(otherX, otherY)) {
+            connect(x, y, otherX, otherY);
+        }
+    }
+
+    private void connect(final int x, final int y, final int otherX, final int otherY) {
+        final var cell = grid.index(x, y);
+        final var other = grid.index(otherX, otherY);
+        clusterAt(x, y).crossings.add(new int[] { cell, other });
+        clusterAt(otherX, otherY).crossings.add(new int[] { other, cell });
+    }
+
+    /* Growable list of the cells walked so far */
+    private static final class Path {
+        private int[] cells = new int[64];
+        private int length;
+
+        private void add(final int cell) {
+            if(length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = cell;
+        }
+
+        private void addAll(final int[] steps) {
+            if(length + steps.length > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(length + steps.length, length * 2));
+            }
+            System.arraycopy(steps, 0, cells, length, steps.length);
+            length += steps.length;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(cells, length);
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.atomiccomics.crusoe.graph;
+
+/**
+ * Jump Point Search for 8-connected grids where every passable cell costs the same to enter.
+ * Diagonal moves are allowed even when both adjacent orthogonal cells are blocked, matching how the world graph connects cells.
+ * Cell costs other than passable/impassable are ignored; each step counts as one.
+ */
+public final class JumpPointSearchPathfinder implements GridPathfinder {
+
+    private static final int[] DX = { 0, 0, -1, 1, 1, 1, -1, -1 };
+    private static final int[] DY = { 1, -1, 0, 0, 1, -1, 1, -1 };
+
+    private static final int NONE = -1;
+
+    @Override
+    public int[] findPathFrom(final int start, final int end, final Grid grid, final GridHeuristic heuristic) throws ImpossiblePathException {
+        final var scratch = GridScratch.get();
+        scratch.prepare(grid.size());
+
+        final var endX = grid.x(end);
+        final var endY = grid.y(end);
+
+        scratch.relax(start, 0L, GridScratch.NOT_QUEUED);
+        scratch.offer(start, 0L, 0L);
+
+        while(scratch.heapSize > 0) {
+            final var current = scratch.poll();
+
+            if(current == end) {
+                break;
+            }
+
+            final var x = grid.x(current);
+            final var y = grid.y(current);
+            final var parent = scratch.via[current];
+            if(parent == GridScratch.NOT_QUEUED) {
+                for(int d = 0; d < DX.length; d++) {
+                    jumpFrom(current, x, y, DX[d], DY[d], end, endX, endY, grid, heuristic, scratch);
+                }
+                continue;
+            }
+
+            final var dx = Integer.signum(x - grid.x(parent));
+            final var dy = Integer.signum(y - grid.y(parent));
+            if(dx != 0 && dy != 0) {
+                jumpFrom(current, x, y, 0, dy, end, endX, endY, grid, heuristic, scratch);
+                jumpFrom(current, x, y, dx, 0, end, endX, endY, grid, heuristic, scratch);
+                jumpFrom(current, x, y, dx, dy, end, endX, endY, grid, heuristic, scratch);
+                if(!grid.isPassable(x - dx, y)) {
+                    jumpFrom(current, x, y, -dx, dy, end, endX, endY, grid, heuristic, scratch);
+                }
+                if(!grid.isPassable(x, y - dy)) {
+                    jumpFrom(current, x, y, dx, -dy, end, endX, endY, grid, heuristic, scratch);
+                }
+            } else if(dx != 0) {
+                jumpFrom(current, x, y, dx, 0, end, endX, endY, grid, heuristic, scratch);
+                if(!grid.isPassable(x, y + 1)) {
+                    jumpFrom(current, x, y, dx, 1, end, endX, endY, grid, heuristic, scratch);
+                }
+                if(!grid.isPassable(x, y - 1)) {
+                    jumpFrom(current, x, y, dx, -1, end, endX, endY, grid, heuristic, scratch);
+                }
+            } else {
+                jumpFrom(current, x, y, 0, dy, end, endX, endY, grid, heuristic, scratch);
+                if(!grid.isPassable(x + 1, y)) {
+                    jumpFrom(current, x, y, 1, dy, end, endX, endY, grid, heuristic, scratch);
+                }
+                if(!grid.isPassable(x - 1, y)) {
+                    jumpFrom(current, x, y, -1, dy, end, endX, endY, grid, heuristic, scratch);
+                }
+            }
+        }
+
+        if(start == end || !scratch.isVisited(end)) {
+            throw new ImpossiblePathException();
+        }
+
+        return expand(scratch.route(start, end), start, grid);
+    }
+
+    private static void jumpFrom(final int current, final int x, final int y, final int dx, final int dy,
+                                 final int end, final int endX, final int endY,
+                                 final Grid grid, final GridHeuristic heuristic, final GridScratch scratch) {
+        final var jumpPoint = dx != 0 && dy != 0
+                ? jumpDiagonally(x + dx, y + dy, dx, dy, end, grid)
+                : jumpStraight(x + dx, y + dy, dx, dy, end, grid);
+        if(jumpPoint == NONE) {
+            return;
+        }
+
+        final var jumpX = grid.x(jumpPoint);
+        final var jumpY = grid.y(jumpPoint);
+        final var cost = scratch.accumulatedCost[current] + Math.max(Math.abs(jumpX - x), Math.abs(jumpY - y));
+        if(scratch.relax(jumpPoint, cost, current)) {
+            scratch.offer(jumpPoint, cost, heuristic.estimate(jumpX, jumpY, endX, endY));
+        }
+    }
+
+    private static int jumpStraight(int x, int y, final int dx, final int dy, final int end, final Grid grid) {
+        while(grid.isPassable(x, y)) {
+            final var cell = grid.index(x, y);
+            if(cell == end || hasForcedNeighbor(x, y, dx, dy, grid)) {
+                return cell;
+            }
+            x += dx;
+            y += dy;
+        }
+        return NONE;
+    }
+
+    private static int jumpDiagonally(int x, int y, final int dx, final int dy, final int end, final Grid grid) {
+        while(grid.isPassable(x, y)) {
+            final var cell = grid.index(x, y);
+            if(cell == end || hasForcedNeighbor(x, y, dx, dy, grid)) {
+                return cell;
+            }
+            if(jumpStraight(x + dx, y, dx, 0, end, grid) != NONE || jumpStraight(x, y + dy, 0, dy, end, grid) != NONE) {
+                return cell;
+            }
+            x += dx;
+            y += dy;
+        }
+        return NONE;
+    }
+
+    private static boolean hasForcedNeighbor(final int x, final int y, final int dx, final int dy, final Grid grid) {
+        if(dx != 0 && dy != 0) {
+            return (grid.isPassable(x - dx, y + dy) && !grid.isPassable(x - dx, y))
+                    || (grid.isPassable(x + dx, y - dy) && !grid.isPassable(x, y - dy));
+        } else if(dx != 0) {
+            return (grid.isPassable(x + dx, y + 1) && !grid.isPassable(x, y + 1))
+                    || (grid.isPassable(x + dx, y - 1) && !grid.isPassable(x, y - 1));
+        } else {
+            return (grid.isPassable(x + 1, y + dy) && !grid.isPassable(x + 1, y))
+                    || (grid.isPassable(x - 1, y + dy) && !grid.isPassable(x - 1, y));
+        }
+    }
+
+    private static int[] expand(final int[] jumpPoints, final int start, final Grid grid) {
+        var length = 0;
+        var from = start;
+        for(final var jumpPoint : jumpPoints) {
+            length += Math.max(Math.abs(grid.x(jumpPoint) - grid.x(from)), Math.abs(grid.y(jumpPoint) - grid.y(from)));
+            from = jumpPoint;
+        }
+
+        final var route = new int[length];
+        var step = 0;
+        from = start;
+        for(final var jumpPoint : jumpPoints) {
+            var x = grid.x(from);
+            var y = grid.y(from);
+            final var dx = Integer.signum(grid.x(jumpPoint) - x);
+            final var dy = Integer.signum(grid.y(jumpPoint) - y);
+            while(grid.index(x, y) != jumpPoint) {
+                x += dx;
+                y += dy;
+                route[step++] = grid.index(x, y);
+            }
+            from = jumpPoint;
+        }
+        return route;
+    }
+
+}
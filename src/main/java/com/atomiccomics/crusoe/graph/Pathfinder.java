@@ -2,12 +2,25 @@ package com.atomiccomics.crusoe.graph;
 
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.ToLongBiFunction;
 
 public interface Pathfinder {
 
     <N, E> List<Graph.Edge<N, E>> findPathFrom(Graph.Node<N> start,
                                                Graph.Node<N> end,
                                                Graph<N, E> graph,
-                                               BiFunction<Graph.Node<N>, Graph.Node<N>, Long> heuristic)
+                                               ToLongBiFunction<Graph.Node<N>, Graph.Node<N>> heuristic)
             throws ImpossiblePathException;
+
+    /**
+     * Takes a heuristic that boxes its estimates; prefer the primitive one, which searches call on every relaxation.
+     */
+    default <N, E> List<Graph.Edge<N, E>> findPathFrom(final Graph.Node<N> start,
+                                                       final Graph.Node<N> end,
+                                                       final Graph<N, E> graph,
+                                                       final BiFunction<Graph.Node<N>, Graph.Node<N>, Long> heuristic)
+            throws ImpossiblePathException {
+        final ToLongBiFunction<Graph.Node<N>, Graph.Node<N>> unboxed = heuristic::apply;
+        return findPathFrom(start, end, graph, unboxed);
+    }
 }
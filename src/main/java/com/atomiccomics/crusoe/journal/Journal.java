@@ -0,0 +1,188 @@
+package com.atomiccomics.crusoe.journal;
+
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.EventCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * An append-only log of event batches, kept in a directory of fixed-size, memory-mapped segment files.
+ * Appending is lock-free: a batch is encoded up front, and writing it only takes claiming space in the current segment.
+ * Appends are not durable until committed. Committing forces the mapped files to disk, and a single force covers every
+ * append finished before it started, so concurrent committers share the cost rather than each paying for their own.
+ * Batches appended concurrently are journalled in the order they claimed space. After a crash, a batch that wasn't
+ * completely written is dropped along with anything after it in the same segment. Segments written in any other
+ * format than the current one are refused, both when opening the journal and when replaying it.
+ */
+public final class Journal {
+
+    /**
+     * A place in the journal, between two batches.
+     */
+    public record Position(long segment, int offset) {
+
+        public static final Position START = new Position(0, 0);
+    }
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private volatile Segment current;
+    /* Segments that have been rolled over but may still hold writes no force has covered yet */
+    private final Queue<Segment> unsettled = new ConcurrentLinkedQueue<>();
+
+    /* Appends are numbered as they finish; a commit waits for a force that started after its append finished */
+    private final AtomicLong finished = new AtomicLong();
+    private volatile long forced;
+    private final AtomicBoolean forcing = new AtomicBoolean();
+
+    private Journal(final Path directory, final int segmentSize, final Segment current) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.current = current;
+    }
+
+    public static Journal open(final Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the journal in the given directory, creating it if needed; new batches are appended after the last intact one.
+     */
+    public static Journal open(final Path directory, final int segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        final var indexes = segmentIndexes(directory);
+        final var segment = indexes.isEmpty()
+                ? Segment.create(directory, 0, segmentSize)
+                : Segment.reopen(directory, indexes.get(indexes.size() - 1), segmentSize);
+        return new Journal(directory, segmentSize, segment);
+    }
+
+    private static List<Long> segmentIndexes(final Path directory) throws IOException {
+        try(final var files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("\\d{16}\\.journal"))
+                    .map(name -> Long.parseLong(name.substring(0, 16)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Appends the batch and returns a ticket to {@link #commit(long)} it with.
+     */
+    public long append(final List<Event<?>> batch) {
+        final var encoded = EventCodec.encode(batch);
+        final var body = new byte[encoded.remaining()];
+        encoded.get(body);
+        if(Segment.PREAMBLE_SIZE + Segment.HEADER_SIZE + body.length > segmentSize) {
+            throw new IllegalArgumentException("Batch of " + batch.size() + " events is too large for a journal segment");
+        }
+
+        var segment = current;
+        while(!segment.append(body)) {
+            segment = roll(segment);
+        }
+        return finished.incrementAndGet();
+    }
+
+    private synchronized Segment roll(final Segment full) {
+        if(current == full) {
+            try {
+                final var next = Segment.create(directory, full.index() + 1, segmentSize);
+                unsettled.add(full);
+                current = next;
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the position just after the last batch appended. Only meaningful when no append is in progress.
+     */
+    public Position end() {
+        final var segment = current;
+        return new Position(segment.index(), segment.end());
+    }
+
+    /**
+     * Whether nothing has been appended to the journal since it was first created.
+     */
+    public boolean isEmpty() {
+        final var segment = current;
+        return segment.index() == 0 && segment.end() == Segment.PREAMBLE_SIZE;
+    }
+
+    /**
+     * Returns once the append with the given ticket, and every append finished before it, is on disk.
+     */
+    public void commit(final long ticket) {
+        while(forced < ticket) {
+            if(!forcing.compareAndSet(false, true)) {
+                Thread.yield();
+                continue;
+            }
+            try {
+                final var target = finished.get();
+                if(forced < target) {
+                    /* Read before the rolled-over segments, so one rolled over in between is still found among them */
+                    final var latest = current;
+                    for(final var segment : unsettled) {
+                        final var settled = segment.isSettled();
+                        segment.force();
+                        if(settled) {
+                            unsettled.remove(segment);
+                        }
+                    }
+                    latest.force();
+                    forced = target;
+                }
+            } finally {
+                forcing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Hands every intact batch in the journal to the consumer, oldest first.
+     */
+    public void replay(final Consumer<List<Event<?>>> consumer) throws IOException {
+        replay(Position.START, consumer);
+    }
+
+    /**
+     * Hands every intact batch from the given position onwards to the consumer, oldest first.
+     */
+    public void replay(final Position from, final Consumer<List<Event<?>>> consumer) throws IOException {
+        for(final var index : segmentIndexes(directory)) {
+            if(index < from.segment()) {
+                continue;
+            }
+            try(final var channel = FileChannel.open(Segment.pathOf(directory, index))) {
+                final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Segment.checkPreamble(buffer, Segment.pathOf(directory, index));
+                var offset = Math.max(index == from.segment() ? from.offset() : 0, Segment.PREAMBLE_SIZE);
+                for(var record = Segment.recordAt(buffer, offset); record != null; record = Segment.recordAt(buffer, offset)) {
+                    offset += Segment.HEADER_SIZE + record.remaining();
+                    consumer.accept(EventCodec.decode(record));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.atomiccomics.crusoe.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size journal file, mapped into memory. The file opens with a preamble naming the format its records are
+ * encoded in, so a journal written by an incompatible version is refused rather than decoded into garbage.
+ * Records are laid out back to back after it as a length, a checksum of the body and the body itself; the first record
+ * with a zero length or a bad checksum marks the end of the segment.
+ * Writers claim space by advancing the position and then fill it in independently, and a segment that can't fit
+ * a record is sealed so nothing more is written to it.
+ */
+final class Segment {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int PREAMBLE_SIZE = 2 * Integer.BYTES;
+
+    private static final int MAGIC = 0x43524a4e;
+    /* Bumped whenever the layout of records or the encoding of events within them changes */
+    private static final int FORMAT = 1;
+
+    private static final int ZERO_CHUNK = 64 << 10;
+
+    private final long index;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final AtomicInteger position;
+    /* Writers that have claimed, or are about to claim, space here and haven't finished writing it */
+    private final AtomicInteger writers = new AtomicInteger();
+
+    private Segment(final long index, final MappedByteBuffer buffer, final int position) {
+        this.index = index;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.position = new AtomicInteger(position);
+    }
+
+    static Path pathOf(final Path directory, final long index) {
+        return directory.resolve(String.format("%016d.journal", index));
+    }
+
+    static Segment create(final Path directory, final long index, final int capacity) throws IOException {
+        final var buffer = map(pathOf(directory, index), capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(Integer.BYTES, FORMAT);
+        return new Segment(index, buffer, PREAMBLE_SIZE);
+    }
+
+    /**
+     * Maps an existing segment for further appends, starting after its last intact record and clearing anything
+     * left behind it by a write that never finished.
+     */
+    static Segment reopen(final Path directory, final long index, final int capacity) throws IOException {
+        final var buffer = map(pathOf(directory, index), capacity);
+        if(buffer.getInt(0) == 0 && buffer.getInt(Integer.BYTES) == 0) {
+            /* Created, but never written to before the preamble could reach the disk */
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(Integer.BYTES, FORMAT);
+        }
+        checkPreamble(buffer, pathOf(directory, index));
+        var end = PREAMBLE_SIZE;
+        for(var record = recordAt(buffer, end); record != null; record = recordAt(buffer, end)) {
+            end += HEADER_SIZE + record.remaining();
+        }
+        final var zeroes = new byte[Math.min(ZERO_CHUNK, capacity)];
+        for(int i = end; i < capacity; i += zeroes.length) {
+            buffer.put(i, zeroes, 0, Math.min(zeroes.length, capacity - i));
+        }
+        return new Segment(index, buffer, end);
+    }
+
+    private static MappedByteBuffer map(final Path path, final int capacity) throws IOException {
+        try(final var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    /**
+     * Fails unless the segment was written in the format this version reads.
+     */
+    static void checkPreamble(final ByteBuffer buffer, final Path path) throws IOException {
+        if(buffer.capacity() < PREAMBLE_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a journal segment, or predates the current journal format");
+        }
+        final var format = buffer.getInt(Integer.BYTES);
+        if(format != FORMAT) {
+            throw new IOException(path + " is in journal format " + format + ", but only format " + FORMAT + " can be read");
+        }
+    }
+
+    /**
+     * Returns the body of the intact record at the given offset, or null if the segment ends there.
+     */
+    static ByteBuffer recordAt(final ByteBuffer buffer, final int offset) {
+        if(offset + HEADER_SIZE > buffer.capacity()) {
+            return null;
+        }
+        final var length = buffer.getInt(offset);
+        if(length <= 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+            return null;
+        }
+        final var body = buffer.duplicate().position(offset + HEADER_SIZE).limit(offset + HEADER_SIZE + length).slice();
+        final var checksum = new CRC32();
+        checksum.update(body.duplicate());
+        return (int)checksum.getValue() == buffer.getInt(offset + Integer.BYTES) ? body : null;
+    }
+
+    long index() {
+        return index;
+    }
+
+    /**
+     * The offset the next record would be written at.
+     */
+    int end() {
+        return position.get();
+    }
+
+    /**
+     * Writes the record if there is room for it, returning false and sealing the segment if not.
+     */
+    boolean append(final byte[] body) {
+        final var size = HEADER_SIZE + body.length;
+        writers.incrementAndGet();
+        try {
+            int offset;
+            do {
+                offset = position.get();
+                if(offset + size > capacity) {
+                    position.set(capacity);
+                    return false;
+                }
+            } while(!position.compareAndSet(offset, offset + size));
+
+            /* Absolute puts leave the buffer's own position alone, so writers don't disturb each other */
+            final var checksum = new CRC32();
+            checksum.update(body);
+            buffer.put(offset + HEADER_SIZE, body);
+            buffer.putInt(offset + Integer.BYTES, (int)checksum.getValue());
+            buffer.putInt(offset, body.length);
+            return true;
+        } finally {
+            writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Whether this segment is sealed and every write into it has finished, so forcing it once more makes it durable for good.
+     */
+    boolean isSettled() {
+        return position.get() == capacity && writers.get() == 0;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+}
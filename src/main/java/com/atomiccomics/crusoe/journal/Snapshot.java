@@ -0,0 +1,171 @@
+package com.atomiccomics.crusoe.journal;
+
+import com.atomiccomics.crusoe.*;
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.EventCodec;
+import com.atomiccomics.crusoe.item.Item;
+import com.atomiccomics.crusoe.player.DestinationUpdated;
+import com.atomiccomics.crusoe.player.ItemPickedUp;
+import com.atomiccomics.crusoe.player.Player;
+import com.atomiccomics.crusoe.world.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * The game state as of a position in the journal, so starting up only has to replay what was journalled after it.
+ * The states held here are copies that nothing else changes, so a snapshot can be written out on any thread.
+ */
+public record Snapshot(Journal.Position position, World.WorldState world, Player.PlayerState player, Game.GameState game) {
+
+    /*
+     * Snapshots in an older layout, or pointing into journal segments from before they began with a preamble,
+     * fail this check and are skipped, so the journal is replayed instead
+     */
+    private static final int MAGIC = 0x43525333;
+
+    /* Flags for the optional parts of the state, and for the game's switches */
+    private static final int HAS_DIMENSIONS = 1;
+    private static final int RUNNING = 1 << 1;
+    private static final int PLAYER_SELECTED = 1 << 2;
+    private static final int WALL_BLUEPRINT_ACTIVATED = 1 << 3;
+
+    /* Four varints covers the largest entry */
+    private static final int MAX_ENTRY_SIZE = 4 * EventCodec.MAX_VARINT_SIZE;
+
+    /**
+     * Describes the snapshotted state as the events that would build it up from nothing, for components that keep
+     * their own view of the game and would otherwise only see what happened after the snapshot was taken.
+     */
+    public List<Event<?>> describe() {
+        final var events = new ArrayList<Event<?>>();
+        if(world.dimensions() != null) {
+            events.add(Event.create(new WorldResized(world.dimensions())));
+        }
+        world.entities().forEach((placed, id) -> events.add(Event.create(new PlayerMoved(id, placed))));
+        world.walls().forEach(wall -> events.add(Event.create(new WallBuilt(wall))));
+        world.blueprints().forEach(blueprint -> events.add(Event.create(new WallBlueprintPlaced(blueprint))));
+        world.items().forEach((location, item) -> events.add(Event.create(new ItemPlaced(item, location))));
+        player.inventory().forEach(item -> events.add(Event.create(new ItemPickedUp(item))));
+        player.destinations().forEach((id, destination) -> events.add(Event.create(new DestinationUpdated(id, destination))));
+        if(game.isRunning()) {
+            events.add(Event.create(new GameResumed()));
+        }
+        if(game.isPlayerSelected()) {
+            events.add(Event.create(new PlayerSelected()));
+        }
+        if(game.isWallBlueprintActivated()) {
+            events.add(Event.create(new WallBlueprintActivated()));
+        }
+        return events;
+    }
+
+    /**
+     * Writes the snapshot as a header, the state and a checksum of everything before it, returning a buffer ready to be read.
+     */
+    ByteBuffer encode() {
+        /* One extra entry covers the dimensions, and six varints the counts */
+        final var entries = 1L + world.entities().size() + player.destinations().size()
+                + world.walls().size() + world.blueprints().size() + world.items().size() + player.inventory().size();
+        final var out = ByteBuffer.allocate(Math.toIntExact(4 * Integer.BYTES + Long.BYTES + 6 * EventCodec.MAX_VARINT_SIZE + entries * MAX_ENTRY_SIZE));
+        out.putInt(MAGIC);
+        out.putLong(position.segment());
+        out.putInt(position.offset());
+
+        final var flags = (world.dimensions() != null ? HAS_DIMENSIONS : 0)
+                | (game.isRunning() ? RUNNING : 0)
+                | (game.isPlayerSelected() ? PLAYER_SELECTED : 0)
+                | (game.isWallBlueprintActivated() ? WALL_BLUEPRINT_ACTIVATED : 0);
+        out.putInt(flags);
+        if(world.dimensions() != null) {
+            EventCodec.writeDimensions(world.dimensions(), out);
+        }
+        EventCodec.writeVarint(world.entities().size(), out);
+        world.entities().forEach((placed, id) -> {
+            EventCodec.writeVarint(id, out);
+            EventCodec.writePlayer(placed, out);
+        });
+        EventCodec.writeVarint(player.destinations().size(), out);
+        player.destinations().forEach((id, destination) -> {
+            EventCodec.writeVarint(id, out);
+            EventCodec.writeCoordinates(destination, out);
+        });
+
+        writeTiles(world.walls(), out);
+        writeTiles(world.blueprints(), out);
+        EventCodec.writeVarint(world.items().size(), out);
+        world.items().forEach((location, item) -> {
+            EventCodec.writeItem(item, out);
+            EventCodec.writeCoordinates(location, out);
+        });
+        EventCodec.writeVarint(player.inventory().size(), out);
+        player.inventory().forEach(item -> EventCodec.writeItem(item, out));
+
+        final var checksum = new CRC32();
+        checksum.update(out.duplicate().flip());
+        out.putInt((int)checksum.getValue());
+        return out.flip();
+    }
+
+    /**
+     * Reads back a snapshot written by {@link #encode()}, rejecting one that is damaged or isn't a snapshot at all.
+     */
+    static Snapshot decode(final ByteBuffer in) {
+        if(in.remaining() < 2 * Integer.BYTES) {
+            throw new IllegalArgumentException("Snapshot is truncated");
+        }
+        final var checksum = new CRC32();
+        checksum.update(in.duplicate().limit(in.limit() - Integer.BYTES));
+        if((int)checksum.getValue() != in.getInt(in.limit() - Integer.BYTES) || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Snapshot is damaged");
+        }
+        final var segment = in.getLong();
+        final var position = new Journal.Position(segment, in.getInt());
+
+        final var flags = in.getInt();
+        final var dimensions = (flags & HAS_DIMENSIONS) != 0 ? EventCodec.readDimensions(in) : null;
+        final var entities = new HashMap<Integer, World.Player>();
+        for(int i = EventCodec.readVarint(in); i > 0; i--) {
+            final var id = EventCodec.readVarint(in);
+            entities.put(id, EventCodec.readPlayer(in));
+        }
+        final var destinations = new HashMap<Integer, World.Coordinates>();
+        for(int i = EventCodec.readVarint(in); i > 0; i--) {
+            final var id = EventCodec.readVarint(in);
+            destinations.put(id, EventCodec.readCoordinates(in));
+        }
+
+        final var walls = readTiles(in);
+        final var blueprints = readTiles(in);
+        final var items = new HashMap<World.Coordinates, Item>();
+        for(int i = EventCodec.readVarint(in); i > 0; i--) {
+            final var item = EventCodec.readItem(in);
+            items.put(EventCodec.readCoordinates(in), item);
+        }
+        final var inventory = EnumSet.noneOf(Item.class);
+        for(int i = EventCodec.readVarint(in); i > 0; i--) {
+            inventory.add(EventCodec.readItem(in));
+        }
+
+        return new Snapshot(position,
+                World.WorldState.of(dimensions, entities, walls, blueprints, items),
+                Player.PlayerState.of(inventory, destinations),
+                Game.GameState.of((flags & RUNNING) != 0, (flags & PLAYER_SELECTED) != 0, (flags & WALL_BLUEPRINT_ACTIVATED) != 0));
+    }
+
+    private static void writeTiles(final Set<World.Coordinates> tiles, final ByteBuffer out) {
+        EventCodec.writeVarint(tiles.size(), out);
+        tiles.forEach(tile -> EventCodec.writeCoordinates(tile, out));
+    }
+
+    private static List<World.Coordinates> readTiles(final ByteBuffer in) {
+        final var count = EventCodec.readVarint(in);
+        final var tiles = new ArrayList<World.Coordinates>(count);
+        for(int i = 0; i < count; i++) {
+            tiles.add(EventCodec.readCoordinates(in));
+        }
+        return tiles;
+    }
+
+}
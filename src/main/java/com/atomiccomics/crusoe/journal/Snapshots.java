@@ -0,0 +1,143 @@
+package com.atomiccomics.crusoe.journal;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps snapshots of the game state next to a journal, deciding when one is due and writing it out on a thread of its own.
+ * A snapshot is due once enough events have been journalled since the last one, or once enough time has passed and
+ * anything has been journalled at all. Writing never holds up the caller; if snapshots are taken faster than they can
+ * be written, only the newest one waiting is kept. Each is written to a file of its own and moved into place once
+ * it is on disk, and the one before it is kept in case the newest turns out to be damaged.
+ */
+public final class Snapshots implements AutoCloseable {
+
+    private static final System.Logger LOG = System.getLogger(Snapshots.class.getName());
+
+    private static final int KEPT = 2;
+
+    private final Path directory;
+    private final long everyEvents;
+    private final long intervalNanos;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        final var thread = new Thread(task, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Snapshot> waiting = new AtomicReference<>();
+    /* Only whoever is taking snapshots touches this */
+    private long lastTaken = System.nanoTime();
+
+    private Snapshots(final Path directory, final long everyEvents, final Duration interval) {
+        this.directory = directory;
+        this.everyEvents = everyEvents;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Keeps snapshots in the given directory, creating it if needed, taking one every so many events or so often.
+     */
+    public static Snapshots open(final Path directory, final long everyEvents, final Duration interval) throws IOException {
+        if(everyEvents <= 0 || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Snapshots need a positive event count and interval");
+        }
+        Files.createDirectories(directory);
+        return new Snapshots(directory, everyEvents, interval);
+    }
+
+    private static Path pathOf(final Path directory, final Journal.Position position) {
+        return directory.resolve(String.format("%016d-%010d.snapshot", position.segment(), position.offset()));
+    }
+
+    /* Newest first; the names sort the same way as the positions they were taken at */
+    private List<Path> snapshotFiles() throws IOException {
+        try(final var files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("\\d{16}-\\d{10}\\.snapshot"))
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Whether a snapshot should be taken, given how many events have been journalled since the last one.
+     */
+    public boolean isDue(final long eventsSince) {
+        return eventsSince >= everyEvents || (eventsSince > 0 && System.nanoTime() - lastTaken >= intervalNanos);
+    }
+
+    /**
+     * Hands the snapshot off to be written, replacing any still waiting for its turn.
+     */
+    public void save(final Snapshot snapshot) {
+        lastTaken = System.nanoTime();
+        if(waiting.getAndSet(snapshot) == null) {
+            writer.execute(() -> write(waiting.getAndSet(null)));
+        }
+    }
+
+    private void write(final Snapshot snapshot) {
+        final var path = pathOf(directory, snapshot.position());
+        final var partial = path.resolveSibling(path.getFileName() + ".partial");
+        try {
+            final var encoded = snapshot.encode();
+            try(final var channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while(encoded.hasRemaining()) {
+                    channel.write(encoded);
+                }
+                channel.force(true);
+            }
+            Files.move(partial, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            final var files = snapshotFiles();
+            for(final var stale : files.subList(Math.min(KEPT, files.size()), files.size())) {
+                Files.deleteIfExists(stale);
+            }
+        } catch (final IOException e) {
+            LOG.log(System.Logger.Level.ERROR, "Failed to write snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Returns the newest snapshot that can still be read, if there is one.
+     */
+    public Optional<Snapshot> latest() throws IOException {
+        for(final var path : snapshotFiles()) {
+            try {
+                return Optional.of(Snapshot.decode(ByteBuffer.wrap(Files.readAllBytes(path))));
+            } catch (final IllegalArgumentException | BufferUnderflowException e) {
+                LOG.log(System.Logger.Level.WARNING, "Skipping unreadable snapshot " + path, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Waits for any snapshot already handed off to be written, then stops writing them.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
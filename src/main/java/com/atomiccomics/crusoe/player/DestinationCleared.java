@@ -1,4 +1,4 @@
 package com.atomiccomics.crusoe.player;
 
-public record DestinationCleared() {
+public record DestinationCleared(int entity) {
 }
@@ -2,5 +2,5 @@ package com.atomiccomics.crusoe.player;
 
 import com.atomiccomics.crusoe.world.World;
 
-public record DestinationUpdated(World.Coordinates coordinates) {
+public record DestinationUpdated(int entity, World.Coordinates coordinates) {
 }
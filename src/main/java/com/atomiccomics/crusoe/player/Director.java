@@ -7,6 +7,7 @@ import com.atomiccomics.crusoe.player.ai.ImpossibleGoalException;
 import com.atomiccomics.crusoe.player.ai.Planner;
 import com.atomiccomics.crusoe.player.ai.PlayerMoveGoal;
 import com.atomiccomics.crusoe.world.WallBlueprintPlaced;
+import com.atomiccomics.crusoe.world.World;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -23,8 +24,12 @@ public class Director {
         this.planner = planner;
     }
 
-    @Handler(DestinationUpdated.class)
+    @Handler(value = DestinationUpdated.class, replayed = false)
     public void handleDestinationUpdated(final DestinationUpdated event) {
+        if(event.entity() != World.PLAYER_ENTITY) {
+            //Colonists just walk; only the player plans ahead
+            return;
+        }
         try {
             final var steps = planner.plan(new PlayerMoveGoal(event.coordinates()));
             LOG.log(System.Logger.Level.DEBUG, "Created plan for goal: " + steps);
@@ -33,7 +38,7 @@ public class Director {
         }
     }
 
-    @Handler(WallBlueprintPlaced.class)
+    @Handler(value = WallBlueprintPlaced.class, replayed = false)
     public void handleWallBlueprintPlaced(final WallBlueprintPlaced event) {
         try {
             final var steps = planner.plan(new BuildWallGoal(event.location()));
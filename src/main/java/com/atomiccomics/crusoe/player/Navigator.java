@@ -2,7 +2,6 @@ package com.atomiccomics.crusoe.player;
 
 import com.atomiccomics.crusoe.Handler;
 import com.atomiccomics.crusoe.RegisteredComponent;
-import com.atomiccomics.crusoe.graph.ImpossiblePathException;
 import com.atomiccomics.crusoe.time.RepeatingTask;
 import com.atomiccomics.crusoe.time.Schedule;
 import com.atomiccomics.crusoe.time.Scheduler;
@@ -10,23 +9,62 @@ import com.atomiccomics.crusoe.world.*;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Walks entities to their destinations, one step per {@link #STEP_TIME}. Routes are asked of the {@link Router} and
+ * walked once they arrive. Each entity has a route of its own, scheduled separately, so any number of them can be on
+ * their way at once. A step onto a tile someone else is standing on is held back until they've moved on, rather than
+ * walking through them. Steps can be applied some time after they're issued, so a step only counts as taken once the
+ * entity is seen to have arrived. An entity held up for {@link #PATIENCE} steps in a row looks for another way round,
+ * and gives up on its destination after {@link #DETOURS} of those, so two meeting head on in a corridor don't wait forever.
+ */
 @Singleton
 @RegisteredComponent
 public final class Navigator {
 
+    /* How long an entity takes to walk one tile */
+    private static final Duration STEP_TIME = Duration.ofSeconds(1);
+    /* How many steps in a row an entity waits for the way to clear, and how many new routes it tries, before giving up */
+    static final int PATIENCE = 3;
+    static final int DETOURS = 2;
+
+    /* A route being walked; only ever touched by the entity's own steps, which run one at a time in the scheduler's command order */
+    private static final class Walk {
+        private final World.Coordinates destination;
+        private final Queue<World.Direction> path;
+        /* Where the entity last stood on the route, and the tile the last step was headed for, until it's known whether it got there */
+        private World.Coordinates at;
+        private World.Coordinates heading;
+        private int blocked;
+
+        private Walk(final World.Coordinates start, final World.Coordinates destination, final Queue<World.Direction> path) {
+            this.at = start;
+            this.destination = destination;
+            this.path = path;
+        }
+    }
+
     private final Grapher grapher;
+    private final Router router;
     private final WorldClient worldClient;
     private final PlayerClient playerClient;
     private final Scheduler scheduler;
 
-    private volatile World.Player player;
-    private volatile Schedule runningTask;
+    private final Map<Integer, World.Player> entities = new ConcurrentHashMap<>();
+    private final Map<Integer, Schedule> routes = new ConcurrentHashMap<>();
+    /* How many times each entity has had to look for another way to its current destination */
+    private final Map<Integer, Integer> detours = new ConcurrentHashMap<>();
 
     @Inject
-    public Navigator(final Grapher grapher, final WorldClient worldClient, final PlayerClient playerClient, final Scheduler scheduler) {
+    public Navigator(final Grapher grapher, final Router router, final WorldClient worldClient, final PlayerClient playerClient, final Scheduler scheduler) {
         this.grapher = grapher;
+        this.router = router;
         this.worldClient = worldClient;
         this.playerClient = playerClient;
         this.scheduler = scheduler;
@@ -34,37 +72,82 @@ public final class Navigator {
 
     @Handler(PlayerMoved.class)
     public void handlePlayerMoved(final PlayerMoved event) {
-        this.player = event.player();
+        entities.put(event.entity(), event.player());
     }
 
-    @Handler(DestinationUpdated.class)
+    @Handler(value = DestinationUpdated.class, replayed = false)
     public void handleDestinationUpdated(final DestinationUpdated event) {
+        final var player = entities.get(event.entity());
         if(player == null) {
-            //Player hasn't spawned yet!
+            //Entity hasn't spawned yet!
             return;
         }
-        try {
-            final var path = new ArrayDeque<>(grapher.findPathBetween(player.position(), event.coordinates()));
-            final RepeatingTask task = () -> {
-                final var step = path.remove();
-                worldClient.update(w -> w.move(step));
-                if(path.isEmpty()) {
-                    playerClient.update(Player::clearDestination);
-                }
-                return path.isEmpty();
-            };
-            runningTask = scheduler.scheduleRepeatingTask(task);
-            //TODO Recalculate if path invalidated, e.g. world resized or wall built/destroyed
-        } catch (final ImpossiblePathException e) {
-            //Unable to actually reach the new destination, so don't bother
-            //TODO Signal that the goal is impossible somehow
+        router.request(event.entity(), player.position(), event.coordinates());
+    }
+
+    @Handler(value = RouteFound.class, replayed = false)
+    public void handleRouteFound(final RouteFound event) {
+        final var entity = event.entity();
+        final var player = entities.get(entity);
+        if(player == null) {
+            return;
+        }
+        if(!player.position().equals(event.start())) {
+            //Moved while the route was being found, so it starts in the wrong place
+            router.request(entity, player.position(), event.destination());
+            return;
+        }
+        if(event.steps().isEmpty()) {
+            //Already there
+            playerClient.update(p -> p.clearDestination(entity));
+            return;
+        }
+
+        final var walk = new Walk(event.start(), event.destination(), new ArrayDeque<>(event.steps()));
+        final RepeatingTask task = (tick, commands) -> {
+            if(walk.path.isEmpty()) {
+                return true;
+            }
+            commands.execute(() -> step(entity, walk));
+            return false;
+        };
+        Optional.ofNullable(routes.put(entity, scheduler.scheduleRepeatingTask(STEP_TIME, task))).ifPresent(Schedule::cancel);
+        //TODO Recalculate if path invalidated, e.g. world resized or wall built/destroyed
+    }
+
+    /* Only ever run for one entity at a time, in the scheduler's command order, so the walk needs no locking */
+    private void step(final int entity, final Walk walk) {
+        final var position = entities.get(entity).position();
+        if(walk.heading != null && position.equals(walk.heading)) {
+            walk.path.remove();
+            walk.at = position;
+            walk.blocked = 0;
+        } else if(!position.equals(walk.at) || (walk.heading != null && ++walk.blocked >= PATIENCE)) {
+            //Knocked off the route, or held up too long; stop walking it and either find another or give up
+            Optional.ofNullable(routes.remove(entity)).ifPresent(Schedule::cancel);
+            if(detours.merge(entity, 1, Integer::sum) > DETOURS) {
+                playerClient.update(p -> p.clearDestination(entity));
+            } else {
+                router.request(entity, position, walk.destination);
+            }
+            return;
+        }
+        walk.heading = null;
+
+        if(walk.path.isEmpty()) {
+            playerClient.update(p -> p.clearDestination(entity));
+            return;
         }
+        //Issued from where the entity stands now, so a step applied late can't carry it off somewhere else
+        final var direction = walk.path.element();
+        walk.heading = position.moveTowards(direction);
+        worldClient.update(w -> w.tryMove(entity, position, direction));
     }
 
     @Handler(DestinationCleared.class)
     public void handleDestinationCleared(final DestinationCleared event) {
-        runningTask.cancel();
-        runningTask = null;
+        Optional.ofNullable(routes.remove(event.entity())).ifPresent(Schedule::cancel);
+        detours.remove(event.entity());
     }
 
     public boolean isLegalDestination(final World.Coordinates destination) {
@@ -1,65 +1,87 @@
 package com.atomiccomics.crusoe.player;
 
+import com.atomiccomics.crusoe.collection.PersistentMap;
+import com.atomiccomics.crusoe.collection.PersistentSet;
 import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.Reducer;
 import com.atomiccomics.crusoe.item.Item;
 import com.atomiccomics.crusoe.world.World;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 public final class Player {
 
     public static final class PlayerState {
-        private final Set<Item> inventory = new CopyOnWriteArraySet<>();
-        private World.Coordinates latestDestination;
+        private static final Reducer<PlayerState> REDUCER = Reducer.<PlayerState>builder()
+                .on(ItemPickedUp.class, PlayerState::handleItemPickedUp)
+                .on(ItemDropped.class, PlayerState::handleItemDropped)
+                .on(DestinationUpdated.class, PlayerState::handleDestinationUpdated)
+                .on(DestinationCleared.class, PlayerState::handleDestinationCleared)
+                .build();
+
+        private volatile PersistentSet<Item> inventory = PersistentSet.empty();
+        private volatile PersistentMap<Integer, World.Coordinates> destinations = PersistentMap.empty();
 
         public PlayerState handleItemPickedUp(final Event<ItemPickedUp> event) {
-            this.inventory.add(event.payload().item());
+            this.inventory = inventory.plus(event.payload().item());
             return this;
         }
 
         public PlayerState handleItemDropped(final Event<ItemDropped> event) {
-            this.inventory.remove(event.payload().item());
+            this.inventory = inventory.minus(event.payload().item());
             return this;
         }
 
         public PlayerState handleDestinationUpdated(final Event<DestinationUpdated> event) {
-            latestDestination = event.payload().coordinates();
+            destinations = destinations.plus(event.payload().entity(), event.payload().coordinates());
             return this;
         }
 
         public PlayerState handleDestinationCleared(final Event<DestinationCleared> event) {
-            latestDestination = null;
+            destinations = destinations.minus(event.payload().entity());
             return this;
         }
 
         public PlayerState process(final List<Event<?>> batch) {
-            for(final var event : batch) {
-                switch(event.name().value()) {
-                    case "ItemPickedUp" -> handleItemPickedUp((Event<ItemPickedUp>)event);
-                    case "ItemDropped" -> handleItemDropped((Event<ItemDropped>)event);
-                    case "DestinationUpdated" -> handleDestinationUpdated((Event<DestinationUpdated>)event);
-                    case "DestinationCleared" -> handleDestinationCleared((Event<DestinationCleared>)event);
-                }
+            return REDUCER.reduce(this, batch);
+        }
+
+        public static PlayerState of(final Set<Item> inventory, final Map<Integer, World.Coordinates> destinations) {
+            final var state = new PlayerState();
+            for(final var item : inventory) {
+                state.inventory = state.inventory.plus(item);
             }
-            return this;
+            for(final var destination : destinations.entrySet()) {
+                state.destinations = state.destinations.plus(destination.getKey(), destination.getValue());
+            }
+            return state;
+        }
+
+        public PlayerState copy() {
+            final var copy = new PlayerState();
+            copy.inventory = inventory;
+            copy.destinations = destinations;
+            return copy;
         }
 
         public Set<Item> inventory() {
-            return new HashSet<>(inventory);
+            return inventory;
         }
 
-        public World.Coordinates destination() {
-            return latestDestination;
+        /**
+         * Where each entity that is on its way somewhere is headed, by entity ID.
+         */
+        public Map<Integer, World.Coordinates> destinations() {
+            return destinations;
         }
     }
 
     private final Set<Item> inventory;
-    private final World.Coordinates latestDestination;
+    private final Map<Integer, World.Coordinates> destinations;
 
     public Player(final PlayerState state) {
         this.inventory = state.inventory();
-        this.latestDestination = state.destination();
+        this.destinations = state.destinations();
     }
 
     public List<Event<?>> pickUpItem(final Item item) {
@@ -77,15 +99,35 @@ public final class Player {
         return Collections.singletonList(Event.create(new ItemDropped(item)));
     }
 
-    public List<Event<?>> setDestination(final World.Coordinates coordinates) {
-        if(latestDestination != null) {
-            return Arrays.asList(Event.create(new DestinationCleared()), Event.create(new DestinationUpdated(coordinates)));
+    public List<Event<?>> setDestination(final int entity, final World.Coordinates coordinates) {
+        if(destinations.containsKey(entity)) {
+            return Arrays.asList(Event.create(new DestinationCleared(entity)), Event.create(new DestinationUpdated(entity, coordinates)));
         }
-        return Collections.singletonList(Event.create(new DestinationUpdated(coordinates)));
+        return Collections.singletonList(Event.create(new DestinationUpdated(entity, coordinates)));
     }
 
-    public List<Event<?>> clearDestination() {
-        return Collections.singletonList(Event.create(new DestinationCleared()));
+    public List<Event<?>> clearDestination(final int entity) {
+        return Collections.singletonList(Event.create(new DestinationCleared(entity)));
+    }
+
+    /**
+     * Records the route found for the entity, unless it has been sent somewhere else since asking.
+     */
+    public List<Event<?>> routeFound(final int entity, final World.Coordinates start, final World.Coordinates destination, final List<World.Direction> steps) {
+        if(!Objects.equals(destinations.get(entity), destination)) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(Event.create(new RouteFound(entity, start, destination, steps)));
+    }
+
+    /**
+     * Gives up on a destination the entity can't get to, unless it has been sent somewhere else since asking.
+     */
+    public List<Event<?>> routeNotFound(final int entity, final World.Coordinates destination) {
+        if(!Objects.equals(destinations.get(entity), destination)) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(Event.create(new RouteNotFound(entity, destination)), Event.create(new DestinationCleared(entity)));
     }
 
 }
@@ -0,0 +1,12 @@
+package com.atomiccomics.crusoe.player;
+
+import com.atomiccomics.crusoe.world.World;
+
+import java.util.List;
+
+public record RouteFound(int entity, World.Coordinates start, World.Coordinates destination, List<World.Direction> steps) {
+
+    public RouteFound {
+        steps = List.copyOf(steps);
+    }
+}
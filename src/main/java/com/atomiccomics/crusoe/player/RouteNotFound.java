@@ -0,0 +1,6 @@
+package com.atomiccomics.crusoe.player;
+
+import com.atomiccomics.crusoe.world.World;
+
+public record RouteNotFound(int entity, World.Coordinates destination) {
+}
@@ -0,0 +1,161 @@
+package com.atomiccomics.crusoe.player;
+
+import com.atomiccomics.crusoe.Cleanup;
+import com.atomiccomics.crusoe.graph.ImpossiblePathException;
+import com.atomiccomics.crusoe.time.Scheduler;
+import com.atomiccomics.crusoe.time.Tick;
+import com.atomiccomics.crusoe.world.Grapher;
+import com.atomiccomics.crusoe.world.World;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds routes for entities away from the engine, so a crowd being sent somewhere doesn't hold up everything else.
+ * Requests wait in a queue, and asking for a route someone is already waiting on joins their request instead of adding
+ * another, so a group sent from one spot to another costs a single search. Each tick, the oldest requests, up to
+ * {@value #DEFAULT_BUDGET} or the {@code crusoe.routeBudget} property, are searched side by side on a pool of workers
+ * against a snapshot of the grid, and the answers come back as {@link RouteFound} and {@link RouteNotFound} events in
+ * the order they were asked for. Whatever doesn't fit waits for the next tick, so a flood of requests is spread over
+ * several ticks rather than stalling one.
+ */
+@Singleton
+public final class Router {
+
+    private static final System.Logger LOG = System.getLogger(Router.class.getName());
+
+    public static final int DEFAULT_BUDGET = 64;
+
+    /**
+     * Requests queued so far, and the searches it took to answer them.
+     */
+    public record Statistics(long requested, long searched) {
+
+    }
+
+    private record Query(World.Coordinates start, World.Coordinates destination) {
+
+    }
+
+    private record Waiting(Query query, Set<Integer> entities) {
+
+    }
+
+    private final Grapher grapher;
+    private final PlayerClient playerClient;
+    private final Scheduler scheduler;
+    private final ForkJoinPool workers;
+    private final int budget;
+
+    /* Queries waiting to be searched, oldest first, with the entities waiting on each; guarded by itself, as are the rest */
+    private final LinkedHashMap<Query, Set<Integer>> pending = new LinkedHashMap<>();
+    /* Whether a task is scheduled to work through the queue */
+    private boolean working;
+    private long requested;
+    private long searched;
+
+    @Inject
+    public Router(final Grapher grapher, final PlayerClient playerClient, final Scheduler scheduler) {
+        this(grapher, playerClient, scheduler,
+                Integer.getInteger("crusoe.routeBudget", DEFAULT_BUDGET),
+                Integer.getInteger("crusoe.routeWorkers", Runtime.getRuntime().availableProcessors()));
+    }
+
+    public Router(final Grapher grapher, final PlayerClient playerClient, final Scheduler scheduler, final int budget, final int workers) {
+        if(budget <= 0) {
+            throw new IllegalArgumentException("Budget must be positive");
+        }
+        if(workers <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        this.grapher = grapher;
+        this.playerClient = playerClient;
+        this.scheduler = scheduler;
+        this.workers = new ForkJoinPool(workers);
+        this.budget = budget;
+    }
+
+    /**
+     * Queues a search for a route on the entity's behalf; the answer arrives as an event on a later tick.
+     */
+    public void request(final int entity, final World.Coordinates start, final World.Coordinates destination) {
+        //Endpoints in different components can never be joined, so don't bother queueing a search
+        if(!grapher.isReachable(start, destination)) {
+            playerClient.update(p -> p.routeNotFound(entity, destination));
+            return;
+        }
+        synchronized(pending) {
+            requested++;
+            pending.computeIfAbsent(new Query(start, destination), query -> new LinkedHashSet<>()).add(entity);
+            if(!working) {
+                working = true;
+                scheduler.scheduleRepeatingTask(this::work);
+            }
+        }
+    }
+
+    public Statistics statistics() {
+        synchronized(pending) {
+            return new Statistics(requested, searched);
+        }
+    }
+
+    /* Searches as many of the oldest queries as the budget allows, finishing once a tick finds the queue empty */
+    private boolean work(final Tick tick, final Executor commands) {
+        final var batch = new ArrayList<Waiting>(budget);
+        synchronized(pending) {
+            if(pending.isEmpty()) {
+                working = false;
+                return true;
+            }
+            final var oldest = pending.entrySet().iterator();
+            while(oldest.hasNext() && batch.size() < budget) {
+                final var next = oldest.next();
+                batch.add(new Waiting(next.getKey(), next.getValue()));
+                oldest.remove();
+            }
+            searched += batch.size();
+        }
+
+        /* The world was sized when these were queued, so there's a grid to search */
+        final var snapshot = grapher.snapshot().orElseThrow();
+        final var searches = new ArrayList<Callable<List<World.Direction>>>(batch.size());
+        for(final var waiting : batch) {
+            searches.add(() -> snapshot.findPathBetween(waiting.query().start(), waiting.query().destination()));
+        }
+
+        /* Returns once every search has finished, one way or another */
+        final var outcomes = workers.invokeAll(searches);
+        for(int i = 0; i < batch.size(); i++) {
+            final var query = batch.get(i).query();
+            List<World.Direction> route = null;
+            try {
+                route = outcomes.get(i).get();
+            } catch (final ExecutionException e) {
+                if(!(e.getCause() instanceof ImpossiblePathException)) {
+                    LOG.log(System.Logger.Level.ERROR, "Encountered an error finding a route", e.getCause());
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final var found = route;
+            for(final int entity : batch.get(i).entities()) {
+                commands.execute(() -> playerClient.update(p -> found != null
+                        ? p.routeFound(entity, query.start(), query.destination(), found)
+                        : p.routeNotFound(entity, query.destination())));
+            }
+        }
+        return false;
+    }
+
+    @Cleanup
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+}
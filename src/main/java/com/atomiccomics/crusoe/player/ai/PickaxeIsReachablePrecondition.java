@@ -1,6 +1,5 @@
 package com.atomiccomics.crusoe.player.ai;
 
-import com.atomiccomics.crusoe.graph.ImpossiblePathException;
 import com.atomiccomics.crusoe.item.Item;
 import com.atomiccomics.crusoe.world.Grapher;
 import com.atomiccomics.crusoe.world.Mapper;
@@ -18,15 +17,6 @@ public class PickaxeIsReachablePrecondition implements Precondition {
         final var player = mapper.playerLocation();
         final var pickaxe = mapper.itemLocation(Item.PICKAXE);
 
-        return player.flatMap(p -> {
-            return pickaxe.map(i -> {
-                try {
-                    grapher.findPathBetween(p, i);
-                    return true;
-                } catch (ImpossiblePathException e) {
-                    return false;
-                }
-            });
-        }).orElse(false);
+        return player.flatMap(p -> pickaxe.map(i -> grapher.isReachable(p, i))).orElse(false);
     }
 }
@@ -9,6 +9,7 @@ import com.google.inject.Injector;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.ToLongBiFunction;
 import java.util.stream.Collectors;
 
 public final class Planner {
@@ -39,7 +40,8 @@ public final class Planner {
         final var graph = builder.build();
 
         try {
-            final var path = pathfinder.findPathFrom(start, end, graph, (a, b) -> 1L);
+            final ToLongBiFunction<Graph.Node<Effect>, Graph.Node<Effect>> uniform = (a, b) -> 1L;
+            final var path = pathfinder.findPathFrom(start, end, graph, uniform);
             return path.stream()
                     .map(Graph.Edge::via)
                     .collect(Collectors.toList());
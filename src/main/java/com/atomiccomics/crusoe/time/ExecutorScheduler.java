@@ -1,5 +1,6 @@
 package com.atomiccomics.crusoe.time;
 
+import com.atomiccomics.crusoe.Cleanup;
 import com.atomiccomics.crusoe.GamePaused;
 import com.atomiccomics.crusoe.GameResumed;
 import com.atomiccomics.crusoe.Handler;
@@ -7,32 +8,124 @@ import com.atomiccomics.crusoe.RegisteredComponent;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
+/**
+ * Runs repeating tasks on a fixed-timestep clock while the game is running. The pool wakes up once per tick, and each
+ * time runs as many whole ticks as real time has paid for, so a late wakeup is made up for on the next one and every
+ * tick stands for the same slice of game time. After a stall, such as a long GC pause, only a few ticks are caught up
+ * and the rest of the backlog is dropped, so a slow tick can't snowball into ever more ticks to run.
+ * The tick rate defaults to {@value #DEFAULT_TICK_RATE} a second and can be set with the {@code crusoe.tickRate} property.
+ * Tasks run one after another by default. Given more than one worker, through the {@code crusoe.tickParallelism} property,
+ * they run side by side on a fork/join pool instead, and the tick waits for all of them to finish. The commands each
+ * one issued are then run in the order the tasks were scheduled, so the engine sees the same sequence of updates
+ * however the work happened to be interleaved.
+ * Every task, whether it runs each tick or only now and then, is a timer in a {@link TimerWheel}, so scheduling and
+ * cancelling take constant time however many there are, and a tick only does work for the tasks due on it.
+ */
 @Singleton
 @RegisteredComponent
 public final class ExecutorScheduler implements Scheduler {
 
     private static final System.Logger LOG = System.getLogger(ExecutorScheduler.class.getName());
 
-    private final Set<RepeatingTask> tasks = new CopyOnWriteArraySet<>();
+    public static final int DEFAULT_TICK_RATE = 30;
+
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * How the clock has kept up so far: ticks run, ticks that took longer than the time they stand for, and ticks
+     * dropped after a stall rather than caught up.
+     */
+    public record Load(long ticks, long overBudget, long dropped) {
+
+    }
+
+    /* A scheduled task, put back in the wheel each time it runs until it's done or cancelled */
+    private final class Timed implements Schedule {
+        private final RepeatingTask task;
+        private final long period;
+        /* Guarded by the wheel, along with the wheel itself */
+        private TimerWheel.Timer<Timed> timer;
+        private boolean cancelled;
+
+        private Timed(final RepeatingTask task, final long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        @Override
+        public void cancel() {
+            synchronized(timers) {
+                cancelled = true;
+                timers.cancel(timer);
+            }
+        }
+    }
+
+    private final TimerWheel<Timed> timers = new TimerWheel<>();
     private final ScheduledExecutorService pool;
+    /* Null when tasks run one after another on the pool's own thread */
+    private final ForkJoinPool workers;
+    private final long tickNanos;
+    private final Duration delta;
+
+    /* Only the pool's thread touches these while running; resuming resets the clock before the first wakeup */
+    private long lastWoken;
+    private long accumulated;
+    private volatile long ticks;
+    private volatile long overBudget;
+    private volatile long dropped;
 
     private volatile ScheduledFuture<?> scheduledFuture;
 
     @Inject
     public ExecutorScheduler(final ScheduledExecutorService pool) {
+        this(pool, Integer.getInteger("crusoe.tickRate", DEFAULT_TICK_RATE), Integer.getInteger("crusoe.tickParallelism", 1));
+    }
+
+    public ExecutorScheduler(final ScheduledExecutorService pool, final int ticksPerSecond) {
+        this(pool, ticksPerSecond, 1);
+    }
+
+    public ExecutorScheduler(final ScheduledExecutorService pool, final int ticksPerSecond, final int parallelism) {
+        if(ticksPerSecond <= 0 || ticksPerSecond > 1000) {
+            throw new IllegalArgumentException("Tick rate must be between 1 and 1000 a second");
+        }
+        if(parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
         this.pool = pool;
+        this.workers = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+        this.delta = Duration.ofNanos(tickNanos);
     }
 
     @Override
     public Schedule scheduleRepeatingTask(final RepeatingTask task) {
-        tasks.add(task);
-        return () -> tasks.remove(task);
+        return schedule(new Timed(task, 1));
+    }
+
+    @Override
+    public Schedule scheduleRepeatingTask(final Duration period, final RepeatingTask task) {
+        if(period.isNegative()) {
+            throw new IllegalArgumentException("Period can't be negative");
+        }
+        return schedule(new Timed(task, Math.max(1, (period.toNanos() + tickNanos - 1) / tickNanos)));
+    }
+
+    private Timed schedule(final Timed timed) {
+        synchronized(timers) {
+            timed.timer = timers.schedule(timers.now() + timed.period, timed);
+        }
+        return timed;
+    }
+
+    public Load load() {
+        return new Load(ticks, overBudget, dropped);
     }
 
     @Handler(GameResumed.class)
@@ -40,18 +133,8 @@ public final class ExecutorScheduler implements Scheduler {
         if (scheduledFuture != null) {
             return;
         }
-        scheduledFuture = pool.scheduleAtFixedRate(() -> {
-            try {
-                for(final var task : tasks) {
-                    final var isDone = task.doWork();
-                    if(isDone) {
-                        tasks.remove(task);
-                    }
-                }
-            } catch (final Exception e) {
-                LOG.log(System.Logger.Level.ERROR, "Encountered an error during scheduled task", e);
-            }
-        }, 0, 1, TimeUnit.SECONDS);
+        restart(System.nanoTime());
+        scheduledFuture = pool.scheduleAtFixedRate(() -> advance(System.nanoTime()), tickNanos, tickNanos, TimeUnit.NANOSECONDS);
     }
 
     @Handler(GamePaused.class)
@@ -62,4 +145,99 @@ public final class ExecutorScheduler implements Scheduler {
         scheduledFuture.cancel(false);
         scheduledFuture = null;
     }
+
+    /* Starts the clock over, so time spent paused isn't caught up on */
+    void restart(final long now) {
+        lastWoken = now;
+        accumulated = 0;
+    }
+
+    /* Runs every whole tick that has come due by now, keeping the remainder towards the next one */
+    void advance(final long now) {
+        accumulated += now - lastWoken;
+        lastWoken = now;
+        final var limit = MAX_CATCH_UP_TICKS * tickNanos;
+        if(accumulated > limit) {
+            final var behind = (accumulated - limit) / tickNanos;
+            LOG.log(System.Logger.Level.WARNING, "Fell " + behind + " ticks behind; dropping them");
+            dropped += behind;
+            accumulated = limit;
+        }
+        while(accumulated >= tickNanos) {
+            accumulated -= tickNanos;
+            final var started = System.nanoTime();
+            runTick(new Tick(ticks, delta));
+            ticks++;
+            if(System.nanoTime() - started > tickNanos) {
+                overBudget++;
+            }
+        }
+    }
+
+    /* Runs the tasks due this tick, then puts back the ones that aren't done yet; one that fails is kept on as it was */
+    private void runTick(final Tick tick) {
+        final var due = new ArrayList<Timed>();
+        synchronized(timers) {
+            timers.advance(timer -> due.add(timer.value()));
+        }
+        if(due.isEmpty()) {
+            return;
+        }
+
+        final var done = workers != null ? runInParallel(tick, due) : runInTurn(tick, due);
+        synchronized(timers) {
+            for(int i = 0; i < due.size(); i++) {
+                final var timed = due.get(i);
+                if(!done[i] && !timed.cancelled) {
+                    timed.timer = timers.schedule(timers.now() + timed.period, timed);
+                }
+            }
+        }
+    }
+
+    private boolean[] runInTurn(final Tick tick, final List<Timed> due) {
+        final var done = new boolean[due.size()];
+        for(int i = 0; i < due.size(); i++) {
+            try {
+                done[i] = due.get(i).task.doWork(tick, Runnable::run);
+            } catch (final RuntimeException e) {
+                LOG.log(System.Logger.Level.ERROR, "Encountered an error during scheduled task", e);
+            }
+        }
+        return done;
+    }
+
+    /*
+     * Each task collects its commands in a list of its own; once every task has finished, the lists are run in the
+     * order the tasks were scheduled. A task that fails has its commands thrown away along with it.
+     */
+    private boolean[] runInParallel(final Tick tick, final List<Timed> due) {
+        final var issued = new ArrayList<List<Runnable>>(due.size());
+        final var work = new ArrayList<Callable<Boolean>>(due.size());
+        for(final var timed : due) {
+            final var commands = new ArrayList<Runnable>();
+            issued.add(commands);
+            work.add(() -> timed.task.doWork(tick, commands::add));
+        }
+
+        /* Returns once every task has finished, one way or another */
+        final var outcomes = workers.invokeAll(work);
+        final var done = new boolean[due.size()];
+        for(int i = 0; i < due.size(); i++) {
+            try {
+                done[i] = outcomes.get(i).get();
+                issued.get(i).forEach(Runnable::run);
+            } catch (final ExecutionException | InterruptedException | RuntimeException e) {
+                LOG.log(System.Logger.Level.ERROR, "Encountered an error during scheduled task", e);
+            }
+        }
+        return done;
+    }
+
+    @Cleanup
+    public void shutdown() {
+        if(workers != null) {
+            workers.shutdownNow();
+        }
+    }
 }
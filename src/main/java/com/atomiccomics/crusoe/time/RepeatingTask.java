@@ -1,8 +1,15 @@
 package com.atomiccomics.crusoe.time;
 
+import java.util.concurrent.Executor;
+
 @FunctionalInterface
 public interface RepeatingTask {
 
-    boolean doWork();
+    /**
+     * Does this tick's share of the work, returning true once there is none left.
+     * Anything that changes the game should be handed to commands rather than done directly. It may be run straight
+     * away, or held until every task has had its turn this tick and then run in the order the tasks were scheduled.
+     */
+    boolean doWork(Tick tick, Executor commands);
 
 }
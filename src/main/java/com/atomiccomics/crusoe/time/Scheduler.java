@@ -1,7 +1,28 @@
 package com.atomiccomics.crusoe.time;
 
+import java.time.Duration;
+
 public interface Scheduler {
 
+    /**
+     * Runs the task every tick until it reports it is done.
+     */
     Schedule scheduleRepeatingTask(RepeatingTask task);
 
+    /**
+     * Runs the task once every period, the first time a period from now, until it reports it is done.
+     * Periods are rounded up to a whole number of ticks.
+     */
+    Schedule scheduleRepeatingTask(Duration period, RepeatingTask task);
+
+    /**
+     * Runs the task once, on the first tick at least the given delay from now.
+     */
+    default Schedule scheduleOnce(final Duration delay, final RepeatingTask task) {
+        return scheduleRepeatingTask(delay, (tick, commands) -> {
+            task.doWork(tick, commands);
+            return true;
+        });
+    }
+
 }
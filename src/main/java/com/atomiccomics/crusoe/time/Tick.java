@@ -0,0 +1,19 @@
+package com.atomiccomics.crusoe.time;
+
+import java.time.Duration;
+
+/**
+ * One step of the simulation clock: how many came before it, and how much game time each one stands for.
+ */
+public record Tick(long number, Duration delta) {
+
+    /**
+     * Whether this is the first tick of a new period of the given length, counting from tick zero, so a task can run
+     * at a slower rate than the clock without keeping time itself.
+     */
+    public boolean isEvery(final Duration period) {
+        final var nanos = delta.toNanos();
+        return Math.floorDiv(number * nanos, period.toNanos()) != Math.floorDiv((number - 1) * nanos, period.toNanos());
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.atomiccomics.crusoe.time;
+
+import java.util.function.Consumer;
+
+/**
+ * Timers keyed by the tick they're due on, kept in a hierarchy of hashed wheels. The lowest wheel has a slot for each of
+ * the next {@value #SLOTS} ticks, and each wheel above it has a slot for each run of ticks the whole wheel below covers.
+ * A timer goes into the lowest wheel its due tick still falls within, and when a wheel comes round to a slot, the
+ * timers in it are spread over the wheels below. Each slot is a circular list behind a sentinel, so scheduling and
+ * cancelling are a handful of pointer swaps, and a tick that has nothing due just finds its slot empty.
+ * Timers too far off for the top wheel wait in an overflow list, looked at again whenever the top wheel comes round.
+ * Not thread safe.
+ */
+final class TimerWheel<T> {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    static final class Timer<T> {
+        private final T value;
+        private final long deadline;
+        private Timer<T> previous;
+        private Timer<T> next;
+        /* Whether this is waiting in a slot */
+        private boolean scheduled;
+
+        private Timer(final T value, final long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            final var sentinel = new Timer<T>(null, Long.MIN_VALUE);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        T value() {
+            return value;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+    }
+
+    private final Timer<T>[][] wheels;
+    private final Timer<T> overflow = Timer.sentinel();
+    private long now;
+    private int size;
+
+    TimerWheel() {
+        this(0);
+    }
+
+    /* Starts the clock at the given tick rather than zero */
+    @SuppressWarnings("unchecked")
+    TimerWheel(final long now) {
+        this.now = now;
+        wheels = new Timer[LEVELS][SLOTS];
+        for(final var wheel : wheels) {
+            for(int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * The last tick expired; timers can be scheduled for any tick after it.
+     */
+    long now() {
+        return now;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Timer<T> schedule(final long deadline, final T value) {
+        if(deadline <= now) {
+            throw new IllegalArgumentException("Tick " + deadline + " has already passed");
+        }
+        final var timer = new Timer<>(value, deadline);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Takes the timer out of its slot, if it hasn't already expired or been cancelled.
+     */
+    void cancel(final Timer<T> timer) {
+        if(timer.scheduled) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Moves on to the next tick, handing every timer due on it to the consumer in the order they were scheduled.
+     */
+    void advance(final Consumer<Timer<T>> expired) {
+        now++;
+        if(size == 0) {
+            return;
+        }
+
+        /* Work down from the highest wheel that has just come round to a new slot, so timers fall all the way down */
+        var rolled = 0;
+        while(rolled < LEVELS - 1 && (now & ((1L << (BITS * (rolled + 1))) - 1)) == 0) {
+            rolled++;
+        }
+        if(rolled == LEVELS - 1 && (now & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+            replace(overflow);
+        }
+        for(int level = rolled; level > 0; level--) {
+            replace(wheels[level][(int)(now >>> (BITS * level)) & MASK]);
+        }
+
+        final var slot = wheels[0][(int)now & MASK];
+        while(slot.next != slot) {
+            final var timer = slot.next;
+            unlink(timer);
+            size--;
+            expired.accept(timer);
+        }
+    }
+
+    /* Empties the slot and puts each of its timers back where it now belongs */
+    private void replace(final Timer<T> slot) {
+        var timer = slot.next;
+        slot.next = slot;
+        slot.previous = slot;
+        while(timer != slot) {
+            final var next = timer.next;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    /* Into the lowest wheel whose current turn the deadline falls within, or the overflow if none */
+    private void place(final Timer<T> timer) {
+        var target = overflow;
+        for(int level = 0; level < LEVELS; level++) {
+            if(timer.deadline >>> (BITS * (level + 1)) == now >>> (BITS * (level + 1))) {
+                target = wheels[level][(int)(timer.deadline >>> (BITS * level)) & MASK];
+                break;
+            }
+        }
+        timer.previous = target.previous;
+        timer.next = target;
+        target.previous.next = timer;
+        target.previous = timer;
+        timer.scheduled = true;
+    }
+
+    private static <T> void unlink(final Timer<T> timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+        timer.scheduled = false;
+    }
+
+}
@@ -3,6 +3,10 @@ package com.atomiccomics.crusoe.ui;
 import com.atomiccomics.crusoe.Component;
 import com.atomiccomics.crusoe.RegisteredComponent;
 import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.EventTable;
+import com.atomiccomics.crusoe.world.PlayerMoved;
+import com.atomiccomics.crusoe.world.WallBuilt;
+import com.atomiccomics.crusoe.world.WallDestroyed;
 import com.google.inject.Singleton;
 import javafx.scene.media.AudioClip;
 
@@ -11,6 +15,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 @Singleton
@@ -19,6 +24,12 @@ public final class AudioPlayer implements Component {
 
     private static final Function<String, String> AUDIO_CLIP_RESOLVER = filename -> "file://" + Paths.get(".", "media", filename).toAbsolutePath().toString();
 
+    private static final EventTable<String> CLIP_NAMES = EventTable.<String>builder()
+            .put(WallBuilt.class, "build_wall.wav")
+            .put(WallDestroyed.class, "destroy_wall.wav")
+            .put(PlayerMoved.class, "move.wav")
+            .build();
+
     private static final Map<String, AudioClip> EVENTS_TO_CLIPS = new HashMap<>();
 
     private void playClip(final String clipName) {
@@ -27,16 +38,21 @@ public final class AudioPlayer implements Component {
         clip.play();
     }
 
+    @Override
+    public Optional<Set<Class<?>>> interests() {
+        return Optional.of(Set.of(WallBuilt.class, WallDestroyed.class, PlayerMoved.class));
+    }
+
     @Override
     public void process(final List<Event<?>> batch) {
         for(final var event : batch) {
-            Optional.ofNullable(switch(event.name().value()) {
-                case "WallBuilt" -> "build_wall.wav";
-                case "WallDestroyed" -> "destroy_wall.wav";
-                case "PlayerMoved" -> "move.wav";
-                default -> null;
-            }).ifPresent(this::playClip);
+            Optional.ofNullable(CLIP_NAMES.get(event)).ifPresent(this::playClip);
         }
     }
 
+    @Override
+    public void replay(final List<Event<?>> batch) {
+        //Sounds belong to the moment; there's nothing to catch up on
+    }
+
 }
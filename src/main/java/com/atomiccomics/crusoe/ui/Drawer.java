@@ -22,8 +22,8 @@ public class Drawer {
     }
 
     private volatile World.Dimensions dimensions;
-    private volatile World.Player player;
-    private volatile World.Coordinates destination;
+    private final Map<Integer, World.Player> entities = new ConcurrentHashMap<>();
+    private final Map<Integer, World.Coordinates> destinations = new ConcurrentHashMap<>();
     private final Set<World.Coordinates> walls = new CopyOnWriteArraySet<>();
     private final Set<World.Coordinates> blueprints = new CopyOnWriteArraySet<>();
     private final Map<World.Coordinates, Item> items = new ConcurrentHashMap<>();
@@ -37,7 +37,7 @@ public class Drawer {
 
     @Handler(PlayerMoved.class)
     public void handlePlayerMoved(final PlayerMoved event) {
-        this.player = event.player();
+        this.entities.put(event.entity(), event.player());
     }
 
     @Handler(WallBuilt.class)
@@ -67,12 +67,12 @@ public class Drawer {
 
     @Handler(DestinationUpdated.class)
     public void handleDestinationUpdated(final DestinationUpdated event) {
-        this.destination = event.coordinates();
+        this.destinations.put(event.entity(), event.coordinates());
     }
 
     @Handler(DestinationCleared.class)
     public void handleDestinationCleared(final DestinationCleared event) {
-        this.destination = null;
+        this.destinations.remove(event.entity());
     }
 
     @Handler(GamePaused.class)
@@ -103,9 +103,13 @@ public class Drawer {
         blueprints.stream()
                 .map(BlueprintSprite::new)
                 .forEach(sprites::add);
-        Optional.ofNullable(destination).map(DestinationSprite::new).ifPresent(sprites::add);
+        destinations.values()
+                .stream()
+                .map(DestinationSprite::new)
+                .forEach(sprites::add);
 
-        sprites.add(new PlayerSprite(player.position(), player.orientation(), isPlayerSelected));
+        entities.forEach((entity, player) ->
+                sprites.add(new PlayerSprite(player.position(), player.orientation(), isPlayerSelected && entity == World.PLAYER_ENTITY)));
 
         items.entrySet()
                 .stream()
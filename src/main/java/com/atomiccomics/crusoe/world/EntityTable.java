@@ -0,0 +1,142 @@
+package com.atomiccomics.crusoe.world;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable table of where every entity stands, laid out as columns rather than an object per entity: x coordinates,
+ * y coordinates and orientations each sit in arrays of their own, indexed by entity ID. The columns are split into pages
+ * of 64 entities, and placing an entity copies only the page it lives on plus the small arrays of pages; every other
+ * page is shared with the table it came from. The tiles taken are also kept in a {@link TileSet}, so whether anyone is
+ * standing on a tile is a lookup rather than a scan. Entities never share a tile; {@link World} sees to that.
+ */
+public final class EntityTable {
+
+    private static final int PAGE_BITS = 6;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /* The orientation of a slot whose entity hasn't spawned */
+    private static final byte ABSENT = -1;
+
+    private static final World.Direction[] DIRECTIONS = World.Direction.values();
+
+    private static final EntityTable EMPTY = new EntityTable(new int[0][], new int[0][], new byte[0][], 0, 0, TileSet.empty());
+
+    private final int[][] xs;
+    private final int[][] ys;
+    private final byte[][] orientations;
+    /* How many entities have spawned, and one past the highest ID among them */
+    private final int size;
+    private final int limit;
+    private final TileSet occupied;
+
+    private EntityTable(final int[][] xs, final int[][] ys, final byte[][] orientations, final int size, final int limit, final TileSet occupied) {
+        this.xs = xs;
+        this.ys = ys;
+        this.orientations = orientations;
+        this.size = size;
+        this.limit = limit;
+        this.occupied = occupied;
+    }
+
+    public static EntityTable empty() {
+        return EMPTY;
+    }
+
+    public static EntityTable copyOf(final Map<Integer, World.Player> entities) {
+        var table = EMPTY;
+        for(final var entity : entities.entrySet()) {
+            table = table.with(entity.getKey(), entity.getValue());
+        }
+        return table;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * An ID no entity has used yet.
+     */
+    public int nextEntity() {
+        return limit;
+    }
+
+    public boolean contains(final int entity) {
+        return entity >= 0 && entity < limit && orientations[entity >>> PAGE_BITS][entity & PAGE_MASK] != ABSENT;
+    }
+
+    /**
+     * Where the entity stands and which way it faces, or null if it hasn't spawned.
+     */
+    public World.Player get(final int entity) {
+        if(!contains(entity)) {
+            return null;
+        }
+        final var page = entity >>> PAGE_BITS;
+        final var slot = entity & PAGE_MASK;
+        return new World.Player(new World.Coordinates(xs[page][slot], ys[page][slot]), DIRECTIONS[orientations[page][slot]]);
+    }
+
+    public boolean isOccupied(final World.Coordinates location) {
+        return occupied.contains(location);
+    }
+
+    public Set<World.Coordinates> occupied() {
+        return occupied;
+    }
+
+    /**
+     * Returns a table with the entity standing where given, spawning it if it hasn't already, leaving this one untouched.
+     */
+    public EntityTable with(final int entity, final World.Player player) {
+        if(entity < 0) {
+            throw new IllegalArgumentException("Entity IDs can't be negative");
+        }
+        final var previous = get(entity);
+        final var page = entity >>> PAGE_BITS;
+        final var slot = entity & PAGE_MASK;
+
+        final var pages = Math.max(xs.length, page + 1);
+        final var newXs = Arrays.copyOf(xs, pages);
+        final var newYs = Arrays.copyOf(ys, pages);
+        final var newOrientations = Arrays.copyOf(orientations, pages);
+        if(page < xs.length) {
+            newXs[page] = xs[page].clone();
+            newYs[page] = ys[page].clone();
+            newOrientations[page] = orientations[page].clone();
+        } else {
+            for(int added = xs.length; added < pages; added++) {
+                newXs[added] = new int[PAGE_SIZE];
+                newYs[added] = new int[PAGE_SIZE];
+                newOrientations[added] = new byte[PAGE_SIZE];
+                Arrays.fill(newOrientations[added], ABSENT);
+            }
+        }
+        newXs[page][slot] = player.position().x();
+        newYs[page][slot] = player.position().y();
+        newOrientations[page][slot] = (byte)player.orientation().ordinal();
+
+        final var vacated = previous == null ? occupied : occupied.without(previous.position());
+        return new EntityTable(newXs, newYs, newOrientations,
+                previous == null ? size + 1 : size,
+                Math.max(limit, entity + 1),
+                vacated.with(player.position()));
+    }
+
+    /**
+     * Hands every entity that has spawned to the consumer, in order of ID.
+     */
+    public void forEach(final ObjIntConsumer<World.Player> consumer) {
+        for(int entity = 0; entity < limit; entity++) {
+            final var player = get(entity);
+            if(player != null) {
+                consumer.accept(player, entity);
+            }
+        }
+    }
+
+}
@@ -2,41 +2,144 @@ package com.atomiccomics.crusoe.world;
 
 import com.atomiccomics.crusoe.Handler;
 import com.atomiccomics.crusoe.RegisteredComponent;
-import com.atomiccomics.crusoe.graph.AStarPathfinder;
-import com.atomiccomics.crusoe.graph.Graph;
-import com.atomiccomics.crusoe.graph.ImpossiblePathException;
+import com.atomiccomics.crusoe.graph.*;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.ToLongBiFunction;
 import java.util.stream.Collectors;
 
 @Singleton
 @RegisteredComponent
 public final class Grapher {
 
+    private static final int PATH_CACHE_CAPACITY = 1024;
+
+    /* Keeps nothing between searches but per-thread scratch space, so snapshots can share it across threads */
+    private static final GridPathfinder SNAPSHOT_PATHFINDER = new GridAStarPathfinder();
+
+    /**
+     * The grid as it stood when the snapshot was taken. Nothing changes it afterwards, so any number of threads can
+     * search it at once while the world carries on changing.
+     */
+    public static final class Snapshot {
+        private final Grid grid;
+
+        private Snapshot(final Grid grid) {
+            this.grid = grid;
+        }
+
+        /*
+         * An endpoint that was walled in or out of bounds when the snapshot was taken can't be reached either, rather
+         * than being a mistake on the caller's part, since the caller may have asked before the world changed.
+         */
+        public List<World.Direction> findPathBetween(final World.Coordinates start, final World.Coordinates end) throws ImpossiblePathException {
+            if(!grid.isPassable(start.x(), start.y()) || !grid.isPassable(end.x(), end.y())) {
+                throw new ImpossiblePathException();
+            }
+            if(start.equals(end)) {
+                //Already there; the pathfinders only route between distinct cells
+                return List.of();
+            }
+            final var path = SNAPSHOT_PATHFINDER.findPathFrom(grid.index(start.x(), start.y()), grid.index(end.x(), end.y()), grid, GridHeuristic.CHEBYSHEV);
+            return directionsAlong(grid, start, path);
+        }
+    }
+
+    private final Pathfinder pathfinder;
+    private final GridPathfinder gridPathfinder;
+
     private volatile World.Dimensions dimensions;
     private final Set<World.Coordinates> obstacles = new HashSet<>();
 
+    private volatile Grid grid;
+    private volatile GridComponents components;
+
+    private final PathCache pathCache = new PathCache(PATH_CACHE_CAPACITY);
+
+    /* The copy last handed out, kept until the grid changes; guarded by this */
+    private Snapshot snapshot;
+
     private volatile boolean isDirty = false;
     private volatile Graph<World.Coordinates, World.Direction> graph;
 
+    public Grapher() {
+        this(new GridAStarPathfinder());
+    }
+
+    @Inject
+    public Grapher(final GridPathfinder gridPathfinder) {
+        this.pathfinder = null;
+        this.gridPathfinder = gridPathfinder;
+    }
+
+    public Grapher(final Pathfinder pathfinder) {
+        this.pathfinder = pathfinder;
+        this.gridPathfinder = null;
+    }
+
     @Handler(WorldResized.class)
     public void handleWorldResized(final WorldResized event) {
         dimensions = event.dimensions();
+        rebuildGrid();
         isDirty = true;
+        pathCache.invalidateAll();
     }
 
     @Handler(WallBuilt.class)
     public void handleWallBuilt(final WallBuilt event) {
         obstacles.add(event.location());
-        isDirty = true;
+        updateGrid(event.location(), Grid.IMPASSABLE);
+        if(isGraphCurrent()) {
+            detachFromGraph(event.location());
+        }
+        pathCache.blocked(event.location());
     }
 
     @Handler(WallDestroyed.class)
     public void handleWallDestroyed(final WallDestroyed event) {
         obstacles.remove(event.location());
-        isDirty = true;
+        updateGrid(event.location(), 1);
+        if(isGraphCurrent()) {
+            attachToGraph(event.location());
+        }
+        pathCache.invalidateAll();
+    }
+
+    private boolean isGraphCurrent() {
+        return graph != null && !isDirty;
+    }
+
+    private synchronized void rebuildGrid() {
+        final var resized = new Grid(dimensions.width(), dimensions.height());
+        for(final var obstacle : obstacles) {
+            if(dimensions.contains(obstacle)) {
+                resized.setCost(obstacle.x(), obstacle.y(), Grid.IMPASSABLE);
+            }
+        }
+        components = new GridComponents(resized);
+        grid = resized;
+        snapshot = null;
+        if(gridPathfinder != null) {
+            gridPathfinder.gridReplaced(resized);
+        }
+    }
+
+    private synchronized void updateGrid(final World.Coordinates location, final int cost) {
+        final var current = grid;
+        if(current != null && current.contains(location.x(), location.y())) {
+            current.setCost(location.x(), location.y(), cost);
+            snapshot = null;
+            if(cost == Grid.IMPASSABLE) {
+                components.blocked(location.x(), location.y());
+            } else {
+                components.opened(location.x(), location.y());
+            }
+            if(gridPathfinder != null) {
+                gridPathfinder.cellChanged(current, location.x(), location.y());
+            }
+        }
     }
 
     private void rebuildGraph() {
@@ -74,11 +177,83 @@ public final class Grapher {
         isDirty = false;
     }
 
-    public List<World.Direction> findPathBetween(final World.Coordinates start, final World.Coordinates end) throws ImpossiblePathException {
-        if(isDirty) {
+    private void detachFromGraph(final World.Coordinates location) {
+        graph.node(location).ifPresent(graph::removeNode);
+    }
+
+    private void attachToGraph(final World.Coordinates location) {
+        if(!dimensions.contains(location) || graph.node(location).isPresent()) {
+            return;
+        }
+
+        final var node = graph.addNode(location);
+        for(int dx = -1; dx <= 1; dx++) {
+            for(int dy = -1; dy <= 1; dy++) {
+                final var x = location.x() + dx;
+                final var y = location.y() + dy;
+                if((dx == 0 && dy == 0) || x < 0 || y < 0) {
+                    continue;
+                }
+                final var neighborLocation = new World.Coordinates(x, y);
+                graph.node(neighborLocation).ifPresent(neighbor -> {
+                    graph.connect(node, neighbor, location.to(neighborLocation), 1);
+                    graph.connect(neighbor, node, neighborLocation.to(location), 1);
+                });
+            }
+        }
+    }
+
+    Graph<World.Coordinates, World.Direction> graph() {
+        if(isDirty || graph == null) {
             rebuildGraph();
         }
+        return graph;
+    }
+
+    /*
+     * Every step, diagonal or not, costs 1, so Chebyshev distance is the tightest admissible estimate.
+     */
+    public List<World.Direction> findPathBetween(final World.Coordinates start, final World.Coordinates end) throws ImpossiblePathException {
+        return findPathBetween(start, end, GridHeuristic.CHEBYSHEV);
+    }
+
+    public List<World.Direction> findPathBetween(final World.Coordinates start, final World.Coordinates end, final GridHeuristic heuristic) throws ImpossiblePathException {
+        //Endpoints in different components can never be joined, so don't bother searching
+        if(isLegalDestination(start) && isLegalDestination(end) && !isReachable(start, end)) {
+            throw new ImpossiblePathException();
+        }
+
+        final var key = new PathCache.Key(start, end, heuristic);
+        final var cached = pathCache.get(key);
+        if(cached.isPresent()) {
+            return cached.get();
+        }
+
+        final var revision = pathCache.revision();
+        return pathCache.put(key, computePathBetween(start, end, heuristic), revision);
+    }
 
+    /**
+     * Returns the grid as it stands, copied only if it has changed since the last snapshot was taken, or nothing if the
+     * world hasn't been sized yet.
+     */
+    public synchronized Optional<Snapshot> snapshot() {
+        if(snapshot == null && grid != null) {
+            snapshot = new Snapshot(grid.copy());
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    public PathCache.Statistics pathCacheStatistics() {
+        return pathCache.statistics();
+    }
+
+    private List<World.Direction> computePathBetween(final World.Coordinates start, final World.Coordinates end, final GridHeuristic heuristic) throws ImpossiblePathException {
+        if(gridPathfinder != null) {
+            return findPathOnGrid(start, end, heuristic);
+        }
+
+        final var graph = graph();
         final var startNode = graph.node(start);
         final var endNode = graph.node(end);
 
@@ -86,21 +261,48 @@ public final class Grapher {
             throw new IllegalArgumentException("Cannot route between nodes when one of them is not present in the graph");
         }
 
-        final var pathfinder = new AStarPathfinder();
-        final BiFunction<Graph.Node<World.Coordinates>, Graph.Node<World.Coordinates>, Long> manhattanDistance = (a, b) -> World.Coordinates.manhattanDistance(a.value(), b.value());
+        final ToLongBiFunction<Graph.Node<World.Coordinates>, Graph.Node<World.Coordinates>> estimate = (a, b) ->
+                heuristic.estimate(a.value().x(), a.value().y(), b.value().x(), b.value().y());
 
-        final var path = pathfinder.findPathFrom(startNode.get(), endNode.get(), graph, manhattanDistance);
+        final var path = pathfinder.findPathFrom(startNode.get(), endNode.get(), graph, estimate);
 
         return path.stream()
                 .map(Graph.Edge::via)
                 .collect(Collectors.toList());
     }
 
-    public boolean isLegalDestination(final World.Coordinates destination) {
-        if(isDirty) {
-            rebuildGraph();
+    private List<World.Direction> findPathOnGrid(final World.Coordinates start, final World.Coordinates end, final GridHeuristic heuristic) throws ImpossiblePathException {
+        final var current = grid;
+        if(current == null || !current.isPassable(start.x(), start.y()) || !current.isPassable(end.x(), end.y())) {
+            throw new IllegalArgumentException("Cannot route between nodes when one of them is not present in the graph");
+        }
+
+        final var path = gridPathfinder.findPathFrom(current.index(start.x(), start.y()), current.index(end.x(), end.y()), current, heuristic);
+        return directionsAlong(current, start, path);
+    }
+
+    private static List<World.Direction> directionsAlong(final Grid grid, final World.Coordinates start, final int[] path) {
+        final var directions = new ArrayList<World.Direction>(path.length);
+        var from = start;
+        for(final var cell : path) {
+            final var to = new World.Coordinates(grid.x(cell), grid.y(cell));
+            directions.add(from.to(to));
+            from = to;
         }
+        return directions;
+    }
+
+    public boolean isLegalDestination(final World.Coordinates destination) {
+        final var current = grid;
+        return current != null && current.isPassable(destination.x(), destination.y());
+    }
 
-        return graph.node(destination).isPresent();
+    public boolean isReachable(final World.Coordinates start, final World.Coordinates end) {
+        final var current = grid;
+        final var labelled = components;
+        return current != null
+                && current.isPassable(start.x(), start.y())
+                && current.isPassable(end.x(), end.y())
+                && labelled.connected(current.index(start.x(), start.y()), current.index(end.x(), end.y()));
     }
 }
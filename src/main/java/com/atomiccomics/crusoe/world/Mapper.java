@@ -18,7 +18,9 @@ public class Mapper {
 
     @Handler(PlayerMoved.class)
     public void handlePlayerMoved(final PlayerMoved event) {
-        player = event.player().position();
+        if(event.entity() == World.PLAYER_ENTITY) {
+            player = event.player().position();
+        }
     }
 
     @Handler(ItemPlaced.class)
@@ -0,0 +1,133 @@
+package com.atomiccomics.crusoe.world;
+
+import com.atomiccomics.crusoe.graph.GridHeuristic;
+
+import java.util.*;
+
+/**
+ * Least-recently-used cache of the routes {@link Grapher} has found.
+ * Each route remembers the cells it crosses, so building a wall only evicts the routes running through it.
+ * Anything that can open up a shorter route, like destroying a wall or resizing the world, bumps the revision and empties the cache.
+ */
+public final class PathCache {
+
+    public record Statistics(long hits, long misses, long evictions) {
+
+    }
+
+    record Key(World.Coordinates start, World.Coordinates end, GridHeuristic heuristic) {
+
+    }
+
+    private record Route(List<World.Direction> path, Set<World.Coordinates> crossed) {
+
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Route> routes;
+    private final Map<World.Coordinates, Set<Key>> routesThrough = new HashMap<>();
+
+    private long revision;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PathCache(final int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Cache must be able to hold at least one route");
+        }
+        this.capacity = capacity;
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Route> eldest) {
+                if(size() <= PathCache.this.capacity) {
+                    return false;
+                }
+                unindex(eldest.getKey(), eldest.getValue());
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    synchronized long revision() {
+        return revision;
+    }
+
+    synchronized Optional<List<World.Direction>> get(final Key key) {
+        final var route = routes.get(key);
+        if(route == null) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(route.path());
+    }
+
+    /*
+     * Routes computed against an older revision of the world are dropped rather than cached,
+     * since whatever changed in the meantime was never checked against them.
+     */
+    synchronized List<World.Direction> put(final Key key, final List<World.Direction> path, final long computedAt) {
+        final var copy = List.copyOf(path);
+        if(computedAt != revision) {
+            return copy;
+        }
+
+        /* The start counts too: a wall there invalidates the route just as surely */
+        final var crossed = new HashSet<World.Coordinates>();
+        var location = key.start();
+        crossed.add(location);
+        for(final var direction : copy) {
+            location = location.moveTowards(direction);
+            crossed.add(location);
+        }
+
+        final var previous = routes.remove(key);
+        if(previous != null) {
+            unindex(key, previous);
+        }
+        routes.put(key, new Route(copy, crossed));
+        for(final var cell : crossed) {
+            routesThrough.computeIfAbsent(cell, c -> new HashSet<>()).add(key);
+        }
+        return copy;
+    }
+
+    synchronized void blocked(final World.Coordinates location) {
+        revision++;
+        final var keys = routesThrough.remove(location);
+        if(keys == null) {
+            return;
+        }
+        for(final var key : keys) {
+            final var route = routes.remove(key);
+            if(route != null) {
+                unindex(key, route);
+            }
+        }
+    }
+
+    synchronized void invalidateAll() {
+        revision++;
+        routes.clear();
+        routesThrough.clear();
+    }
+
+    public synchronized Statistics statistics() {
+        return new Statistics(hits, misses, evictions);
+    }
+
+    private void unindex(final Key key, final Route route) {
+        for(final var cell : route.crossed()) {
+            final var keys = routesThrough.get(cell);
+            if(keys != null) {
+                keys.remove(key);
+                if(keys.isEmpty()) {
+                    routesThrough.remove(cell);
+                }
+            }
+        }
+    }
+
+}
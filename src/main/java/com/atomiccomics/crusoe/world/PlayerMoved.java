@@ -1,4 +1,4 @@
 package com.atomiccomics.crusoe.world;
 
-public record PlayerMoved(World.Player player) {
+public record PlayerMoved(int entity, World.Player player) {
 }
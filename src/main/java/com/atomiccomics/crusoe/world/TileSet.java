@@ -0,0 +1,119 @@
+package com.atomiccomics.crusoe.world;
+
+import com.atomiccomics.crusoe.collection.PersistentMap;
+
+import java.util.*;
+
+/**
+ * An immutable set of coordinates stored as bitmaps over 64x64 pages of tiles, so membership is a shift and a mask.
+ * Only pages holding at least one tile are kept, which keeps sparse sets on huge worlds small, and pages are keyed by
+ * their position rather than an offset into the world so resizing never has to move anything.
+ * Adding or removing a tile copies only the page it lives on; every other page is shared with the set it came from.
+ */
+public final class TileSet extends AbstractSet<World.Coordinates> {
+
+    private static final int PAGE_BITS = 6;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    private static final TileSet EMPTY = new TileSet(PersistentMap.empty(), 0);
+
+    private final PersistentMap<Long, long[]> pages;
+    private final int size;
+
+    private TileSet(final PersistentMap<Long, long[]> pages, final int size) {
+        this.pages = pages;
+        this.size = size;
+    }
+
+    public static TileSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a set holding the given tiles, building each page once rather than copying it for every tile added.
+     */
+    public static TileSet copyOf(final Collection<World.Coordinates> tiles) {
+        if(tiles instanceof TileSet) {
+            return (TileSet)tiles;
+        }
+        final var built = new HashMap<Long, long[]>();
+        for(final var coordinates : tiles) {
+            final var page = built.computeIfAbsent(pageOf(coordinates.x(), coordinates.y()), key -> new long[1 << PAGE_BITS]);
+            page[coordinates.y() & PAGE_MASK] |= 1L << (coordinates.x() & PAGE_MASK);
+        }
+        var pages = PersistentMap.<Long, long[]>empty();
+        var size = 0;
+        for(final var entry : built.entrySet()) {
+            pages = pages.plus(entry.getKey(), entry.getValue());
+            size += Arrays.stream(entry.getValue()).map(Long::bitCount).sum();
+        }
+        return new TileSet(pages, size);
+    }
+
+    private static long pageOf(final int x, final int y) {
+        return ((long)(x >>> PAGE_BITS) << 32) | (y >>> PAGE_BITS);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if(!(o instanceof World.Coordinates)) {
+            return false;
+        }
+        final var coordinates = (World.Coordinates)o;
+        final var page = pages.get(pageOf(coordinates.x(), coordinates.y()));
+        return page != null && (page[coordinates.y() & PAGE_MASK] & (1L << (coordinates.x() & PAGE_MASK))) != 0;
+    }
+
+    /**
+     * Returns a set that also holds the given tile, leaving this one untouched.
+     */
+    public TileSet with(final World.Coordinates coordinates) {
+        if(contains(coordinates)) {
+            return this;
+        }
+        final var key = pageOf(coordinates.x(), coordinates.y());
+        final var existing = pages.get(key);
+        final var page = existing == null ? new long[1 << PAGE_BITS] : existing.clone();
+        page[coordinates.y() & PAGE_MASK] |= 1L << (coordinates.x() & PAGE_MASK);
+        return new TileSet(pages.plus(key, page), size + 1);
+    }
+
+    /**
+     * Returns a set without the given tile, leaving this one untouched.
+     */
+    public TileSet without(final World.Coordinates coordinates) {
+        if(!contains(coordinates)) {
+            return this;
+        }
+        final var key = pageOf(coordinates.x(), coordinates.y());
+        final var page = pages.get(key).clone();
+        page[coordinates.y() & PAGE_MASK] &= ~(1L << (coordinates.x() & PAGE_MASK));
+        if(Arrays.stream(page).allMatch(row -> row == 0L)) {
+            return new TileSet(pages.minus(key), size - 1);
+        }
+        return new TileSet(pages.plus(key, page), size - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<World.Coordinates> iterator() {
+        final var tiles = new ArrayList<World.Coordinates>(size);
+        pages.forEach((key, page) -> {
+            final var originX = (int)(key >>> 32) << PAGE_BITS;
+            final var originY = (int)(long)key << PAGE_BITS;
+            for(int row = 0; row < page.length; row++) {
+                var bits = page[row];
+                while(bits != 0L) {
+                    tiles.add(new World.Coordinates(originX + Long.numberOfTrailingZeros(bits), originY + row));
+                    bits &= bits - 1;
+                }
+            }
+        });
+        return Collections.unmodifiableList(tiles).iterator();
+    }
+
+}
@@ -1,14 +1,18 @@
 package com.atomiccomics.crusoe.world;
 
+import com.atomiccomics.crusoe.collection.PersistentMap;
 import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.Reducer;
+import com.atomiccomics.crusoe.graph.GridHeuristic;
 import com.atomiccomics.crusoe.item.Item;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 public final class World {
 
+    /* The entity the player controls; every other entity is a colonist left to its own devices */
+    public static final int PLAYER_ENTITY = 0;
+
     public enum Direction {
         NORTH {
             @Override
@@ -61,6 +65,14 @@ public final class World {
             return Math.abs(first.x - second.x) + Math.abs(first.y - second.y);
         }
 
+        public static long chebyshevDistance(final Coordinates first, final Coordinates second) {
+            return GridHeuristic.CHEBYSHEV.estimate(first.x, first.y, second.x, second.y);
+        }
+
+        public static long octileDistance(final Coordinates first, final Coordinates second, final long straightCost, final long diagonalCost) {
+            return GridHeuristic.octile(straightCost, diagonalCost).estimate(first.x, first.y, second.x, second.y);
+        }
+
         public Coordinates {
             if(x < 0) {
                 throw new IllegalArgumentException("X coordinate cannot be negative");
@@ -165,12 +177,26 @@ public final class World {
         }
     }
 
+    /*
+     * Every field holds an immutable value, and handlers swap in an updated one that shares structure with the last,
+     * so a World can be built from the current state without copying anything.
+     */
     public static final class WorldState {
+        private static final Reducer<WorldState> REDUCER = Reducer.<WorldState>builder()
+                .on(WorldResized.class, WorldState::handleWorldResized)
+                .on(PlayerMoved.class, WorldState::handlePlayerMoved)
+                .on(WallBuilt.class, WorldState::handleWallBuilt)
+                .on(WallDestroyed.class, WorldState::handleWallDestroyed)
+                .on(WallBlueprintPlaced.class, WorldState::handleWallBlueprintPlaced)
+                .on(ItemPlaced.class, WorldState::handleItemPlaced)
+                .on(ItemRemoved.class, WorldState::handleItemRemoved)
+                .build();
+
         private volatile Dimensions dimensions;
-        private volatile Player player;
-        private final Set<Coordinates> walls = new CopyOnWriteArraySet<>();
-        private final Set<Coordinates> blueprints = new CopyOnWriteArraySet<>();
-        private final Map<Coordinates, Item> items = new ConcurrentHashMap<>();
+        private volatile EntityTable entities = EntityTable.empty();
+        private volatile TileSet walls = TileSet.empty();
+        private volatile TileSet blueprints = TileSet.empty();
+        private volatile PersistentMap<Coordinates, Item> items = PersistentMap.empty();
 
         public WorldState handleWorldResized(final Event<WorldResized> event) {
             this.dimensions = event.payload().dimensions();
@@ -178,82 +204,108 @@ public final class World {
         }
 
         public WorldState handlePlayerMoved(final Event<PlayerMoved> event) {
-            this.player = event.payload().player();
+            this.entities = entities.with(event.payload().entity(), event.payload().player());
             return this;
         }
 
         public WorldState handleWallBuilt(final Event<WallBuilt> event) {
-            this.walls.add(event.payload().location());
+            this.walls = walls.with(event.payload().location());
             return this;
         }
 
         public WorldState handleWallDestroyed(final Event<WallDestroyed> event) {
-            this.walls.remove(event.payload().location());
+            this.walls = walls.without(event.payload().location());
             return this;
         }
 
         public WorldState handleWallBlueprintPlaced(final Event<WallBlueprintPlaced> event) {
-            this.blueprints.add(event.payload().location());
+            this.blueprints = blueprints.with(event.payload().location());
             return this;
         }
 
         public WorldState handleItemPlaced(final Event<ItemPlaced> event) {
-            this.items.put(event.payload().location(), event.payload().item());
+            this.items = items.plus(event.payload().location(), event.payload().item());
             return this;
         }
 
         public WorldState handleItemRemoved(final Event<ItemRemoved> event) {
-            this.items.remove(event.payload().location());
+            this.items = items.minus(event.payload().location());
             return this;
         }
 
         public WorldState process(final List<Event<?>> batch) {
-            WorldState updatedState = this;
-            for(final var event : batch) {
-                updatedState = switch (event.name().value()) {
-                    case "WorldResized" -> updatedState.handleWorldResized((Event<WorldResized>) event);
-                    case "PlayerMoved" -> updatedState.handlePlayerMoved((Event<PlayerMoved>)event);
-                    case "WallBuilt" -> updatedState.handleWallBuilt((Event<WallBuilt>)event);
-                    case "WallDestroyed" -> updatedState.handleWallDestroyed((Event<WallDestroyed>)event);
-                    case "WallBlueprintPlaced" -> updatedState.handleWallBlueprintPlaced((Event<WallBlueprintPlaced>)event);
-                    case "ItemPlaced" -> updatedState.handleItemPlaced((Event<ItemPlaced>)event);
-                    case "ItemRemoved" -> updatedState.handleItemRemoved((Event<ItemRemoved>)event);
-                    default -> updatedState;
-                };
+            return REDUCER.reduce(this, batch);
+        }
+
+        /**
+         * Returns a state that starts out the same as this one but changes independently of it. Every field is an
+         * immutable value, so this costs the same however big the world is.
+         */
+        public WorldState copy() {
+            final var copy = new WorldState();
+            copy.dimensions = dimensions;
+            copy.entities = entities;
+            copy.walls = walls;
+            copy.blueprints = blueprints;
+            copy.items = items;
+            return copy;
+        }
+
+        /**
+         * Returns a state holding the given values, as if it had been built up by the events that produced them.
+         */
+        public static WorldState of(final Dimensions dimensions,
+                                    final Map<Integer, Player> entities,
+                                    final Collection<Coordinates> walls,
+                                    final Collection<Coordinates> blueprints,
+                                    final Map<Coordinates, Item> items) {
+            final var state = new WorldState();
+            state.dimensions = dimensions;
+            state.entities = EntityTable.copyOf(entities);
+            state.walls = TileSet.copyOf(walls);
+            state.blueprints = TileSet.copyOf(blueprints);
+            var placed = PersistentMap.<Coordinates, Item>empty();
+            for(final var item : items.entrySet()) {
+                placed = placed.plus(item.getKey(), item.getValue());
             }
-            return updatedState;
+            state.items = placed;
+            return state;
         }
 
         public Dimensions dimensions() {
             return dimensions;
         }
 
+        public EntityTable entities() {
+            return entities;
+        }
+
         public Player player() {
-            return player;
+            return entities.get(PLAYER_ENTITY);
         }
 
         public Set<Coordinates> walls() {
-            return new HashSet<>(walls);
+            return walls;
         }
 
         public Set<Coordinates> blueprints() {
-            return new HashSet<>(blueprints);
+            return blueprints;
         }
 
         public Map<Coordinates, Item> items() {
-            return new HashMap<>(items);
+            return items;
         }
     }
 
     private final Dimensions dimensions;
-    private final Player player;
+    private final EntityTable entities;
     private final Set<Coordinates> walls;
     private final Set<Coordinates> blueprints;
     private final Map<Coordinates, Item> items;
 
     public World(final WorldState state) {
         this.dimensions = state.dimensions();
-        this.player = state.player();
+        this.entities = state.entities();
         this.walls = state.walls();
         this.blueprints = state.blueprints();
         this.items = state.items();
@@ -270,14 +322,18 @@ public final class World {
 
         final var updates = new LinkedList<Event<?>>();
 
-        if(!Objects.isNull(player)) {
+        var placed = entities;
+        for(int entity = 0; entity < entities.nextEntity(); entity++) {
+            final var player = entities.get(entity);
+            if(player == null || dimensions.contains(player.position())) {
+                continue;
+            }
             final var newX = Math.min(player.position().x(), dimensions.width() - 1);
             final var newY = Math.min(player.position().y(), dimensions.height() - 1);
-            final var newLocation = new Coordinates(newX, newY);
+            final var newLocation = nearestVacant(placed, new Coordinates(newX, newY), dimensions);
 
-            if(!Objects.equals(player.position(), newLocation)) {
-                updates.add(Event.create(new PlayerMoved(new Player(newLocation, player.orientation()))));
-            }
+            placed = placed.with(entity, new Player(newLocation, player.orientation()));
+            updates.add(Event.create(new PlayerMoved(entity, new Player(newLocation, player.orientation()))));
         }
 
         walls.stream()
@@ -290,32 +346,90 @@ public final class World {
         return updates;
     }
 
-    public List<Event<?>> turn(final Direction direction) {
-        assertPlayerSpawned();
+    /* Entities pushed in from outside can land on the same tile, so step back through the world until one is free */
+    private static Coordinates nearestVacant(final EntityTable entities, final Coordinates location, final Dimensions dimensions) {
+        final var tiles = (long)dimensions.width() * dimensions.height();
+        final var start = (long)location.y() * dimensions.width() + location.x();
+        for(long i = 0; i < tiles && i < entities.size() + 1L; i++) {
+            final var index = Math.floorMod(start - i, tiles);
+            final var candidate = new Coordinates((int)(index % dimensions.width()), (int)(index / dimensions.width()));
+            if(!entities.isOccupied(candidate)) {
+                return candidate;
+            }
+        }
+        return location;
+    }
+
+    public List<Event<?>> turn(final int entity, final Direction direction) {
+        assertSpawned(entity);
 
+        final var player = entities.get(entity);
         if(player.orientation() == direction) {
             return Collections.emptyList();
         }
-        return Collections.singletonList(Event.create(new PlayerMoved(new Player(player.position(), direction))));
+        return Collections.singletonList(Event.create(new PlayerMoved(entity, new Player(player.position(), direction))));
     }
 
-    public List<Event<?>> move(final Direction direction) {
-        assertPlayerSpawned();
+    public List<Event<?>> move(final int entity, final Direction direction) {
+        assertSpawned(entity);
 
+        final var player = entities.get(entity);
         if (!direction.isLegal(dimensions, player.position(), walls)) {
             throw new IllegalStateException("Can't move into this spot; moving " + direction + " from " + player.position() + " within a world of size " + dimensions);
         }
+        final var destination = player.position().moveTowards(direction);
+        if(entities.isOccupied(destination)) {
+            throw new IllegalStateException("Can't move into this spot; " + destination + " is already taken");
+        }
 
-        return Collections.singletonList(Event.create(new PlayerMoved(new Player(player.position().moveTowards(direction), direction))));
+        return Collections.singletonList(Event.create(new PlayerMoved(entity, new Player(destination, direction))));
+    }
+
+    /**
+     * Moves the entity one step, provided it is still standing where expected and the way is clear, and does nothing
+     * otherwise. Meant for commands that may only run some time after they were issued, which learn whether the step
+     * was taken from the {@link PlayerMoved} event rather than from an exception.
+     */
+    public List<Event<?>> tryMove(final int entity, final Coordinates from, final Direction direction) {
+        assertSpawned(entity);
+
+        final var player = entities.get(entity);
+        if(!player.position().equals(from)) {
+            return Collections.emptyList();
+        }
+        try {
+            if(!direction.isLegal(dimensions, from, walls) || entities.isOccupied(from.moveTowards(direction))) {
+                return Collections.emptyList();
+            }
+        } catch (final IllegalArgumentException e) {
+            //Off the bottom or left edge of the world, where there aren't even coordinates
+            return Collections.emptyList();
+        }
+        return move(entity, direction);
     }
 
     public List<Event<?>> spawnPlayerAt(final Coordinates location) {
-        assertPlayerNotSpawned();
+        if(entities.contains(PLAYER_ENTITY)) {
+            throw new IllegalStateException("Player has already been spawned!");
+        }
+        return spawnAt(PLAYER_ENTITY, location);
+    }
+
+    /**
+     * Spawns a colonist under an ID no entity has used yet; the ID is on the event returned.
+     */
+    public List<Event<?>> spawnColonistAt(final Coordinates location) {
+        return spawnAt(Math.max(entities.nextEntity(), PLAYER_ENTITY + 1), location);
+    }
 
+    private List<Event<?>> spawnAt(final int entity, final Coordinates location) {
         if(walls != null && walls.contains(location)) {
             throw new IllegalStateException("Can't spawn on top of a wall!");
         }
-        return Collections.singletonList(Event.create(new PlayerMoved(new Player(location, Direction.NORTH))));
+        if(entities.isOccupied(location)) {
+            throw new IllegalStateException("Can't spawn on top of someone else!");
+        }
+        return Collections.singletonList(Event.create(new PlayerMoved(entity, new Player(location, Direction.NORTH))));
     }
 
     public List<Event<?>> spawnItemAt(final Item item, final Coordinates location) {
@@ -346,7 +460,7 @@ public final class World {
     public List<Event<?>> buildWallAt(final Coordinates location) {
         assertDimensionsProvided();
         assertDimensionsContainLocation(location);
-        assertPlayerNotAtLocation(location);
+        assertNobodyAtLocation(location);
         assertItemNotAtLocation(location);
 
         if(walls.contains(location)) {
@@ -359,7 +473,7 @@ public final class World {
     public List<Event<?>> destroyWallAt(final Coordinates location) {
         assertDimensionsProvided();
         assertDimensionsContainLocation(location);
-        assertPlayerNotAtLocation(location);
+        assertNobodyAtLocation(location);
 
         if(!walls.contains(location)) {
             return Collections.emptyList();
@@ -392,9 +506,9 @@ public final class World {
         }
     }
 
-    private void assertPlayerNotAtLocation(final Coordinates location) {
-        if(Optional.ofNullable(player).map(Player::position).map(location::equals).orElse(false)) {
-            throw new IllegalStateException("Can't build a wall on top of the player!");
+    private void assertNobodyAtLocation(final Coordinates location) {
+        if(entities.isOccupied(location)) {
+            throw new IllegalStateException("Can't build a wall on top of a colonist!");
         }
     }
 
@@ -413,18 +527,12 @@ public final class World {
     private void assertLocationEmpty(final Coordinates location) {
         assertWallNotAtLocation(location);
         assertItemNotAtLocation(location);
-        assertPlayerNotAtLocation(location);
+        assertNobodyAtLocation(location);
     }
 
-    private void assertPlayerSpawned() {
-        if(player == null) {
-            throw new IllegalStateException("Player has not been spawned yet!");
-        }
-    }
-
-    private void assertPlayerNotSpawned() {
-        if(player != null) {
-            throw new IllegalStateException("Player has already been spawned!");
+    private void assertSpawned(final int entity) {
+        if(!entities.contains(entity)) {
+            throw new IllegalStateException("Entity " + entity + " has not been spawned yet!");
         }
     }
 
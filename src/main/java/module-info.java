@@ -9,6 +9,7 @@ module com.atomiccomics.crusoe {
 
     opens com.atomiccomics.crusoe to javafx.graphics, javafx.fxml;
     exports com.atomiccomics.crusoe to com.google.guice;
+    exports com.atomiccomics.crusoe.graph to com.google.guice;
     exports com.atomiccomics.crusoe.player to com.google.guice;
     exports com.atomiccomics.crusoe.world to com.google.guice;
     exports com.atomiccomics.crusoe.time to com.google.guice;
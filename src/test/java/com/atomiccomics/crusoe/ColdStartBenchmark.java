@@ -0,0 +1,97 @@
+package com.atomiccomics.crusoe;
+
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.journal.Journal;
+import com.atomiccomics.crusoe.journal.Snapshots;
+import com.atomiccomics.crusoe.world.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Time for a fresh engine to rebuild a game with a million events behind it, replaying the whole journal compared
+ * against starting from the latest snapshot and replaying only the tail after it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColdStartBenchmark {
+
+    private static final int EVENTS = 1_000_000;
+    private static final int BATCH_SIZE = 100;
+    private static final int SNAPSHOT_EVERY = 150_000;
+    private static final World.Dimensions DIMENSIONS = new World.Dimensions(1024, 1024);
+
+    @Param({"journal", "snapshot"})
+    private String startFrom;
+
+    private Path directory;
+
+    /* Walls going up and coming down at random across the map, one event per command */
+    @Setup(Level.Trial)
+    public void recordHistory() throws IOException {
+        directory = Files.createTempDirectory("cold-start");
+        final var snapshots = Snapshots.open(directory.resolve("snapshots"), SNAPSHOT_EVERY, Duration.ofDays(1));
+        final var engine = new Engine(Journal.open(directory.resolve("journal")), snapshots);
+        engine.updateWorld(w -> w.resize(DIMENSIONS));
+        engine.updateWorld(w -> w.spawnPlayerAt(new World.Coordinates(0, 0)));
+
+        final var random = new Random(19);
+        final var walls = new HashSet<World.Coordinates>();
+        for(int recorded = 2; recorded < EVENTS; recorded += BATCH_SIZE) {
+            final var commands = new ArrayList<Function<World, List<Event<?>>>>(BATCH_SIZE);
+            for(int i = 0; i < BATCH_SIZE; i++) {
+                final var location = new World.Coordinates(random.nextInt(DIMENSIONS.width() - 1) + 1, random.nextInt(DIMENSIONS.height()));
+                if(walls.add(location)) {
+                    commands.add(w -> w.buildWallAt(location));
+                } else {
+                    walls.remove(location);
+                    commands.add(w -> w.destroyWallAt(location));
+                }
+            }
+            engine.updateWorld(commands);
+        }
+        snapshots.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws IOException {
+        try(final var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Engine startUp() throws IOException {
+        final var journal = Journal.open(directory.resolve("journal"));
+        if(startFrom.equals("journal")) {
+            final var engine = new Engine(journal);
+            engine.replayJournal();
+            return engine;
+        }
+        try(final var snapshots = Snapshots.open(directory.resolve("snapshots"), SNAPSHOT_EVERY, Duration.ofDays(1))) {
+            final var engine = new Engine(journal, snapshots);
+            engine.replayJournal();
+            return engine;
+        }
+    }
+
+    public static void main(final String... args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColdStartBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.atomiccomics.crusoe;
+
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.item.Item;
+import com.atomiccomics.crusoe.player.DestinationCleared;
+import com.atomiccomics.crusoe.player.DestinationUpdated;
+import com.atomiccomics.crusoe.player.ItemPickedUp;
+import com.atomiccomics.crusoe.world.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Events dispatched per second to a set of wrapped components shaped like the ones the game registers,
+ * comparing generated handlers against the reflective proxy they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentDispatchBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+    private static final int COPIES = 4;
+
+    public static final class WorldListener {
+        private long seen;
+
+        @Handler(WorldResized.class)
+        public void handleWorldResized(final WorldResized event) {
+            seen++;
+        }
+
+        @Handler(PlayerMoved.class)
+        public void handlePlayerMoved(final PlayerMoved event) {
+            seen += event.player().position().x();
+        }
+
+        @Handler(WallBuilt.class)
+        public void handleWallBuilt(final WallBuilt event) {
+            seen += event.location().y();
+        }
+
+        @Handler(WallDestroyed.class)
+        public void handleWallDestroyed(final WallDestroyed event) {
+            seen--;
+        }
+
+        @Handler(ItemPlaced.class)
+        public void handleItemPlaced(final ItemPlaced event) {
+            seen++;
+        }
+    }
+
+    public static final class PlayerListener {
+        private long seen;
+
+        @Handler(PlayerMoved.class)
+        public void handlePlayerMoved(final PlayerMoved event) {
+            seen += event.player().position().y();
+        }
+
+        @Handler(DestinationUpdated.class)
+        public void handleDestinationUpdated(final DestinationUpdated event) {
+            seen += event.coordinates().x();
+        }
+
+        @Handler(DestinationCleared.class)
+        public void handleDestinationCleared(final DestinationCleared event) {
+            seen--;
+        }
+
+        @Handler(ItemPickedUp.class)
+        public void handleItemPickedUp(final ItemPickedUp event) {
+            seen++;
+        }
+    }
+
+    public static final class GameListener {
+        private long seen;
+
+        @Handler(GamePaused.class)
+        public void handleGamePaused(final GamePaused event) {
+            seen++;
+        }
+
+        @Handler(GameResumed.class)
+        public void handleGameResumed(final GameResumed event) {
+            seen--;
+        }
+    }
+
+    @Param({"reflective", "generated"})
+    private String dispatch;
+
+    private final List<Component> components = new ArrayList<>();
+    private final List<Event<?>> batch = new ArrayList<>(BATCH_SIZE);
+
+    @Setup
+    public void registerComponents() {
+        for(int i = 0; i < COPIES; i++) {
+            for(final var listener : List.of(new WorldListener(), new PlayerListener(), new GameListener())) {
+                components.add(dispatch.equals("reflective") ? wrapReflectively(listener) : Component.wrap(listener));
+            }
+        }
+
+        for(int i = 0; i < BATCH_SIZE; i++) {
+            final var location = new World.Coordinates(i, BATCH_SIZE - i);
+            batch.add(switch(i % 8) {
+                case 0 -> Event.create(new PlayerMoved(i, new World.Player(location, World.Direction.NORTH)));
+                case 1 -> Event.create(new WallBuilt(location));
+                case 2 -> Event.create(new DestinationUpdated(i, location));
+                case 3 -> Event.create(new ItemPlaced(Item.PICKAXE, location));
+                case 4 -> Event.create(new ItemPickedUp(Item.PICKAXE));
+                case 5 -> Event.create(new GamePaused());
+                case 6 -> Event.create(new GameResumed());
+                default -> Event.create(new WallBlueprintActivated());
+            });
+        }
+    }
+
+    /* The proxy Component.wrap used to build, kept as a baseline */
+    @SuppressWarnings("unchecked")
+    private static Component wrapReflectively(final Object instance) {
+        final Map<Class<?>, Method> handlers = Stream.of(instance.getClass().getMethods())
+                .filter(m -> m.isAnnotationPresent(Handler.class))
+                .collect(Collectors.toMap(m -> m.getAnnotation(Handler.class).value(), m -> m));
+
+        return (Component) Proxy.newProxyInstance(Component.class.getClassLoader(), new Class<?>[]{Component.class}, (proxy, method, args) -> {
+            final List<Event<?>> events = (List<Event<?>>)args[0];
+            for(final Event<?> event : events) {
+                final Object payload = event.payload();
+                if(handlers.containsKey(payload.getClass())) {
+                    handlers.get(payload.getClass()).invoke(instance, payload);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void dispatchBatchToAllComponents() {
+        for(final var component : components) {
+            component.process(batch);
+        }
+    }
+
+    public static void main(final String... args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ComponentDispatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
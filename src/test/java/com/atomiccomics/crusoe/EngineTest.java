@@ -0,0 +1,207 @@
+package com.atomiccomics.crusoe;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.journal.Journal;
+import com.atomiccomics.crusoe.world.*;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class EngineTest {
+
+    public static final class WallWatcher {
+        private final List<World.Coordinates> built = new ArrayList<>();
+
+        @Handler(WallBuilt.class)
+        public void handleWallBuilt(final WallBuilt event) {
+            built.add(event.location());
+        }
+    }
+
+    @Test
+    void eventsOnlyReachComponentsInterestedInThem() {
+        final var engine = new Engine();
+
+        final var watcher = new WallWatcher();
+        final var movements = new ArrayList<Event<?>>();
+        final var everything = new ArrayList<Event<?>>();
+
+        engine.register(Component.wrap(watcher));
+        engine.register(new Component() {
+            @Override
+            public void process(final List<Event<?>> batch) {
+                movements.addAll(batch);
+            }
+
+            @Override
+            public Optional<Set<Class<?>>> interests() {
+                return Optional.of(Set.of(PlayerMoved.class));
+            }
+        });
+        engine.register(everything::addAll);
+
+        engine.updateWorld(w -> w.resize(new World.Dimensions(8, 8)));
+        engine.updateWorld(w -> w.spawnPlayerAt(new World.Coordinates(4, 4)));
+        engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(1, 1)));
+        engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(6, 6)));
+        /* Shrinking moves the player and knocks down the wall outside the new bounds in a single batch */
+        engine.updateWorld(w -> w.resize(new World.Dimensions(3, 3)));
+
+        MatcherAssert.assertThat(watcher.built, is(List.of(new World.Coordinates(1, 1), new World.Coordinates(6, 6))));
+        MatcherAssert.assertThat(movements.stream().map(e -> e.payload().getClass()).collect(Collectors.toList()),
+                is(List.of(PlayerMoved.class, PlayerMoved.class)));
+        MatcherAssert.assertThat(everything.stream().map(e -> e.name().value()).collect(Collectors.toList()),
+                is(List.of("WorldResized", "PlayerMoved", "WallBuilt", "WallBuilt", "PlayerMoved", "WallDestroyed", "WorldResized")));
+    }
+
+    @Test
+    void bulkUpdatesArriveAsOneBatchOrNotAtAll() {
+        final var engine = new Engine();
+        final var batches = new ArrayList<List<Event<?>>>();
+        engine.register(batches::add);
+        engine.updateWorld(w -> w.resize(new World.Dimensions(8, 8)));
+        engine.updateWorld(w -> w.spawnPlayerAt(new World.Coordinates(3, 0)));
+        batches.clear();
+
+        /* Later commands see the walls built by earlier ones, so the repeat is a no-op rather than a duplicate */
+        final List<Function<World, List<Event<?>>>> row = new ArrayList<>();
+        for(int x = 0; x < 3; x++) {
+            final var location = new World.Coordinates(x, 0);
+            row.add(w -> w.buildWallAt(location));
+        }
+        row.add(w -> w.buildWallAt(new World.Coordinates(0, 0)));
+        engine.updateWorld(row);
+
+        MatcherAssert.assertThat(batches.size(), is(1));
+        MatcherAssert.assertThat(batches.get(0).size(), is(3));
+
+        final List<Function<World, List<Event<?>>>> throughThePlayer = List.of(
+                w -> w.buildWallAt(new World.Coordinates(4, 0)),
+                w -> w.buildWallAt(new World.Coordinates(3, 0)));
+        Assertions.assertThrows(IllegalStateException.class, () -> engine.updateWorld(throughThePlayer));
+
+        MatcherAssert.assertThat(batches.size(), is(1));
+
+        /* The wall the failed batch would have built first was never applied, so building it now is a real change */
+        engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(4, 0)));
+        MatcherAssert.assertThat(batches.size(), is(2));
+        MatcherAssert.assertThat(batches.get(1).size(), is(1));
+    }
+
+    @Test
+    void concurrentAndReentrantUpdatesAreAppliedOneAtATime() throws InterruptedException {
+        final var engine = new Engine();
+        final var size = 64;
+        engine.updateWorld(w -> w.resize(new World.Dimensions(size, size)));
+
+        /* Every wall on the bottom row gets a blueprint above it, placed from inside the handler that saw the wall go up */
+        final var seen = Collections.synchronizedList(new ArrayList<Event<?>>());
+        final var handling = new int[1];
+        final var overlapping = new int[1];
+        engine.register(batch -> {
+            if(handling[0]++ > 0) {
+                overlapping[0]++;
+            }
+            seen.addAll(batch);
+            for(final var event : batch) {
+                if(event.payload() instanceof WallBuilt) {
+                    final var location = ((WallBuilt)event.payload()).location();
+                    engine.updateWorld(w -> w.placeWallBlueprintAt(location.moveNorth()));
+                }
+            }
+            handling[0]--;
+        });
+
+        final var threads = 4;
+        final var start = new CountDownLatch(1);
+        final var workers = new ArrayList<Thread>();
+        for(int t = 0; t < threads; t++) {
+            final var offset = t;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for(int x = offset; x < size; x += threads) {
+                    final var location = new World.Coordinates(x, 0);
+                    engine.updateWorld(w -> w.buildWallAt(location));
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        start.countDown();
+        for(final var worker : workers) {
+            worker.join();
+        }
+        /* Whoever was sequencing last has finished once its own call returned; an uncontended update flushes anything left */
+        engine.updateWorld(w -> List.of());
+
+        final var walls = new HashSet<World.Coordinates>();
+        final var blueprints = new HashSet<World.Coordinates>();
+        for(final var event : seen) {
+            if(event.payload() instanceof WallBuilt) {
+                walls.add(((WallBuilt)event.payload()).location());
+            } else if(event.payload() instanceof WallBlueprintPlaced) {
+                final var location = ((WallBlueprintPlaced)event.payload()).location();
+                MatcherAssert.assertThat(walls.contains(location.moveSouth()), is(true));
+                blueprints.add(location);
+            }
+        }
+
+        MatcherAssert.assertThat(overlapping[0], is(0));
+        MatcherAssert.assertThat(walls.size(), is(size));
+        MatcherAssert.assertThat(blueprints.size(), is(size));
+    }
+
+    @Test
+    void componentsHandlingEventsThemselvesAreToldWhichBatchesAreReplayed(@TempDir final Path directory) throws IOException {
+        final var original = new Engine(Journal.open(directory));
+        original.updateWorld(w -> w.resize(new World.Dimensions(8, 8)));
+        original.updateWorld(w -> w.buildWallAt(new World.Coordinates(1, 1)));
+
+        /* Stands in for the likes of AudioPlayer, which acts on events as they happen and has nothing to catch up on */
+        final var acted = new ArrayList<Event<?>>();
+        final var caughtUp = new ArrayList<Event<?>>();
+        final var restored = new Engine(Journal.open(directory));
+        restored.register(new Component() {
+            @Override
+            public void process(final List<Event<?>> batch) {
+                acted.addAll(batch);
+            }
+
+            @Override
+            public void replay(final List<Event<?>> batch) {
+                caughtUp.addAll(batch);
+            }
+
+            @Override
+            public Optional<Set<Class<?>>> interests() {
+                return Optional.of(Set.of(WallBuilt.class));
+            }
+        });
+        restored.replayJournal();
+
+        MatcherAssert.assertThat(acted, is(List.of()));
+        MatcherAssert.assertThat(caughtUp, is(List.of(Event.create(new WallBuilt(new World.Coordinates(1, 1))))));
+
+        restored.updateWorld(w -> w.buildWallAt(new World.Coordinates(2, 2)));
+        MatcherAssert.assertThat(acted, is(List.of(Event.create(new WallBuilt(new World.Coordinates(2, 2))))));
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.atomiccomics.crusoe.collection;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MpscRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 20_000;
+
+    private record Item(int producer, int sequence) {
+
+    }
+
+    @Test
+    void everyProducersItemsArriveOnceAndInOrder() throws InterruptedException {
+        final var buffer = new MpscRingBuffer<Item>(64);
+
+        final var producers = new ArrayList<Thread>();
+        for(int p = 0; p < PRODUCERS; p++) {
+            final var producer = p;
+            producers.add(new Thread(() -> {
+                for(int i = 0; i < PER_PRODUCER; i++) {
+                    while(!buffer.offer(new Item(producer, i))) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+
+        final var nextExpected = new int[PRODUCERS];
+        final var outOfOrder = new ArrayList<Item>();
+        for(int received = 0; received < PRODUCERS * PER_PRODUCER; ) {
+            final var item = buffer.poll();
+            if(item == null) {
+                Thread.yield();
+                continue;
+            }
+            if(item.sequence() != nextExpected[item.producer()]) {
+                outOfOrder.add(item);
+            }
+            nextExpected[item.producer()] = item.sequence() + 1;
+            received++;
+        }
+        for(final var producer : producers) {
+            producer.join();
+        }
+
+        MatcherAssert.assertThat(outOfOrder, is(List.of()));
+        MatcherAssert.assertThat(buffer.poll(), is((Item)null));
+    }
+
+}
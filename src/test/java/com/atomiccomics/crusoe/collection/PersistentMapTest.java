@@ -0,0 +1,79 @@
+package com.atomiccomics.crusoe.collection;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.pholser.junit.quickcheck.From;
+import com.pholser.junit.quickcheck.Property;
+import com.pholser.junit.quickcheck.generator.GenerationStatus;
+import com.pholser.junit.quickcheck.generator.Generator;
+import com.pholser.junit.quickcheck.random.SourceOfRandomness;
+import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
+import org.hamcrest.MatcherAssert;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(JUnitQuickcheck.class)
+public class PersistentMapTest {
+
+    /* Only a handful of distinct hashes, so keys pile up in collision nodes and deep branches */
+    public record Key(int id) {
+        @Override
+        public int hashCode() {
+            return id % 7 == 0 ? 42 : id * 0x9E3779B9;
+        }
+    }
+
+    public record Edit(Key key, Integer value) {
+
+    }
+
+    public record Edits(List<Edit> edits) {
+
+    }
+
+    public static final class EditsGenerator extends Generator<Edits> {
+
+        public EditsGenerator() {
+            super(Edits.class);
+        }
+
+        @Override
+        public Edits generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            final var count = sourceOfRandomness.nextInt(1, 2000);
+            final var edits = new ArrayList<Edit>(count);
+            for(int i = 0; i < count; i++) {
+                final var key = new Key(sourceOfRandomness.nextInt(0, 500));
+                edits.add(new Edit(key, sourceOfRandomness.nextBoolean() ? sourceOfRandomness.nextInt(0, 3) : null));
+            }
+            return new Edits(edits);
+        }
+    }
+
+    @Property
+    public void everyVersionMatchesAHashMapGivenTheSameEdits(@From(EditsGenerator.class) final Edits edits) {
+        var map = PersistentMap.<Key, Integer>empty();
+        final var expected = new HashMap<Key, Integer>();
+        final var versions = new ArrayList<Map<Key, Integer>>();
+        final var expectedVersions = new ArrayList<Map<Key, Integer>>();
+        for(final var edit : edits.edits()) {
+            if(edit.value() == null) {
+                map = map.minus(edit.key());
+                expected.remove(edit.key());
+            } else {
+                map = map.plus(edit.key(), edit.value());
+                expected.put(edit.key(), edit.value());
+            }
+            versions.add(map);
+            expectedVersions.add(Map.copyOf(expected));
+        }
+
+        MatcherAssert.assertThat(map.size(), is(expected.size()));
+        MatcherAssert.assertThat(new HashMap<>(map), is(expected));
+        MatcherAssert.assertThat(versions, is(expectedVersions));
+    }
+
+}
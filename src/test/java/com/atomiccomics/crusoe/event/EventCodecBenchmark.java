@@ -0,0 +1,83 @@
+package com.atomiccomics.crusoe.event;
+
+import com.atomiccomics.crusoe.GamePaused;
+import com.atomiccomics.crusoe.item.Item;
+import com.atomiccomics.crusoe.player.DestinationUpdated;
+import com.atomiccomics.crusoe.player.ItemPickedUp;
+import com.atomiccomics.crusoe.world.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events written to and read back from a reused buffer per second, for a mix of payloads with coordinates
+ * spread over a 1024x1024 world.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final List<Event<?>> batch = new ArrayList<>(BATCH_SIZE);
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void buildBatch() {
+        final var random = new Random(20);
+        for(int i = 0; i < BATCH_SIZE; i++) {
+            final var location = new World.Coordinates(random.nextInt(1024), random.nextInt(1024));
+            batch.add(switch(i % 6) {
+                case 0 -> Event.create(new PlayerMoved(i, new World.Player(location, World.Direction.NORTHEAST)));
+                case 1 -> Event.create(new WallBuilt(location));
+                case 2 -> Event.create(new DestinationUpdated(i, location));
+                case 3 -> Event.create(new ItemPlaced(Item.PICKAXE, location));
+                case 4 -> Event.create(new ItemPickedUp(Item.PICKAXE));
+                default -> Event.create(new GamePaused());
+            });
+        }
+        buffer = ByteBuffer.allocateDirect(BATCH_SIZE * EventCodec.MAX_EVENT_SIZE);
+        encoded = ByteBuffer.allocateDirect(BATCH_SIZE * EventCodec.MAX_EVENT_SIZE);
+        batch.forEach(event -> EventCodec.write(event, encoded));
+        encoded.flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int encode() {
+        buffer.clear();
+        for(final var event : batch) {
+            EventCodec.write(event, buffer);
+        }
+        return buffer.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void decode(final Blackhole blackhole) {
+        final var in = encoded.duplicate();
+        for(int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(EventCodec.read(in));
+        }
+    }
+
+    public static void main(final String... args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.atomiccomics.crusoe.event;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.atomiccomics.crusoe.*;
+import com.atomiccomics.crusoe.item.Item;
+import com.atomiccomics.crusoe.player.DestinationCleared;
+import com.atomiccomics.crusoe.player.DestinationUpdated;
+import com.atomiccomics.crusoe.player.ItemDropped;
+import com.atomiccomics.crusoe.player.ItemPickedUp;
+import com.atomiccomics.crusoe.player.RouteFound;
+import com.atomiccomics.crusoe.player.RouteNotFound;
+import com.atomiccomics.crusoe.world.*;
+import com.pholser.junit.quickcheck.From;
+import com.pholser.junit.quickcheck.Property;
+import com.pholser.junit.quickcheck.generator.GenerationStatus;
+import com.pholser.junit.quickcheck.generator.Generator;
+import com.pholser.junit.quickcheck.random.SourceOfRandomness;
+import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@RunWith(JUnitQuickcheck.class)
+public class EventCodecTest {
+
+    public record Batch(List<Event<?>> events) {
+
+    }
+
+    public static final class BatchGenerator extends Generator<Batch> {
+
+        public BatchGenerator() {
+            super(Batch.class);
+        }
+
+        /* Mostly the small numbers a game uses, with the odd one anywhere up to the largest an int holds */
+        private static int number(final SourceOfRandomness random) {
+            return random.nextBoolean() ? random.nextInt(0, 300) : random.nextInt(0, Integer.MAX_VALUE);
+        }
+
+        private static World.Coordinates coordinates(final SourceOfRandomness random) {
+            return new World.Coordinates(number(random), number(random));
+        }
+
+        @Override
+        public Batch generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            final var count = sourceOfRandomness.nextInt(0, 200);
+            final var events = new ArrayList<Event<?>>(count);
+            for(int i = 0; i < count; i++) {
+                final var location = coordinates(sourceOfRandomness);
+                final var item = sourceOfRandomness.choose(Item.values());
+                events.add(switch(sourceOfRandomness.nextInt(0, 18)) {
+                    case 0 -> Event.create(new WorldResized(new World.Dimensions(number(sourceOfRandomness) + 1, number(sourceOfRandomness) + 1)));
+                    case 1 -> Event.create(new PlayerMoved(number(sourceOfRandomness), new World.Player(location, sourceOfRandomness.choose(World.Direction.values()))));
+                    case 2 -> Event.create(new WallBuilt(location));
+                    case 3 -> Event.create(new WallDestroyed(location));
+                    case 4 -> Event.create(new WallBlueprintPlaced(location));
+                    case 5 -> Event.create(new ItemPlaced(item, location));
+                    case 6 -> Event.create(new ItemRemoved(item, location));
+                    case 7 -> Event.create(new ItemPickedUp(item));
+                    case 8 -> Event.create(new ItemDropped(item));
+                    case 9 -> Event.create(new DestinationUpdated(number(sourceOfRandomness), location));
+                    case 10 -> Event.create(new DestinationCleared(number(sourceOfRandomness)));
+                    case 11 -> Event.create(new GamePaused());
+                    case 12 -> Event.create(new GameResumed());
+                    case 13 -> Event.create(new PlayerSelected());
+                    case 14 -> Event.create(new PlayerDeselected());
+                    case 15 -> Event.create(new WallBlueprintActivated());
+                    case 16 -> Event.create(new RouteFound(number(sourceOfRandomness), location, coordinates(sourceOfRandomness),
+                            Stream.generate(() -> sourceOfRandomness.choose(World.Direction.values()))
+                                    .limit(sourceOfRandomness.nextInt(0, 300))
+                                    .collect(Collectors.toList())));
+                    case 17 -> Event.create(new RouteNotFound(number(sourceOfRandomness), location));
+                    default -> Event.create(new WallBlueprintDeactivated());
+                });
+            }
+            return new Batch(events);
+        }
+    }
+
+    public static final class IntGenerator extends Generator<Integer> {
+
+        public IntGenerator() {
+            super(Integer.class);
+        }
+
+        /* Every bit width equally likely, so each varint length gets exercised, negatives included */
+        @Override
+        public Integer generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            return sourceOfRandomness.nextInt() >>> sourceOfRandomness.nextInt(0, Integer.SIZE - 1);
+        }
+    }
+
+    @Property
+    public void everyBatchDecodesToWhatWasEncoded(@From(BatchGenerator.class) final Batch batch) {
+        final var encoded = EventCodec.encode(batch.events());
+
+        MatcherAssert.assertThat(EventCodec.decode(encoded), is(batch.events()));
+        MatcherAssert.assertThat(encoded.hasRemaining(), is(false));
+    }
+
+    @Property
+    public void retiredTagsAreNotRead(final World.Direction direction) {
+        for(final var tag : new byte[] { 2, 10, 11 }) {
+            final var retired = ByteBuffer.wrap(new byte[] { tag, 3, 4, (byte)direction.ordinal() });
+            Assertions.assertThrows(IllegalArgumentException.class, () -> EventCodec.read(retired));
+        }
+    }
+
+    @Property
+    public void everyIntReadsBackFromItsVarintInAsFewBytesAsItNeeds(@From(IntGenerator.class) final Integer value) {
+        final var out = ByteBuffer.allocate(EventCodec.MAX_VARINT_SIZE);
+        EventCodec.writeVarint(value, out);
+
+        final var significantBits = Integer.SIZE - Integer.numberOfLeadingZeros(value);
+        MatcherAssert.assertThat(out.position(), is(Math.max(1, (significantBits + 6) / 7)));
+        MatcherAssert.assertThat(EventCodec.readVarint(out.flip()), is(value));
+    }
+
+}
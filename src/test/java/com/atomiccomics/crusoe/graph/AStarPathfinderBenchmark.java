@@ -0,0 +1,77 @@
+package com.atomiccomics.crusoe.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongBiFunction;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AStarPathfinderBenchmark {
+
+    private static final int SIZE = 512;
+
+    private record Cell(int x, int y) {
+
+    }
+
+    @Param({"astar", "bidirectional"})
+    private String algorithm;
+
+    private Pathfinder pathfinder;
+    private final ToLongBiFunction<Graph.Node<Cell>, Graph.Node<Cell>> chebyshevDistance = (a, b) ->
+            Math.max(Math.abs(a.value().x() - b.value().x()), Math.abs(a.value().y() - b.value().y()));
+
+    private Graph<Cell, Void> graph;
+    private Graph.Node<Cell> start;
+    private Graph.Node<Cell> end;
+
+    @Setup
+    public void buildOpenGrid() {
+        pathfinder = algorithm.equals("bidirectional") ? new BidirectionalAStarPathfinder() : new AStarPathfinder();
+
+        final Graph.UndirectedGraphBuilder<Cell, Void> builder = Graph.undirectedGraphBuilder();
+        final var matrix = new Graph.Node[SIZE][SIZE];
+        for(int x = 0; x < SIZE; x++) {
+            for(int y = 0; y < SIZE; y++) {
+                final Graph.Node<Cell> node = builder.addNode(new Cell(x, y));
+                matrix[x][y] = node;
+                if(x > 0) {
+                    builder.connect(matrix[x - 1][y], node, null, null, 1);
+                }
+                if(y > 0) {
+                    builder.connect(matrix[x][y - 1], node, null, null, 1);
+                }
+                if(x > 0 && y > 0) {
+                    builder.connect(matrix[x - 1][y - 1], node, null, null, 1);
+                }
+                if(x > 0 && y < SIZE - 1) {
+                    builder.connect(matrix[x - 1][y + 1], node, null, null, 1);
+                }
+            }
+        }
+        graph = builder.build();
+        start = matrix[0][0];
+        end = matrix[SIZE - 1][SIZE / 3];
+    }
+
+    @Benchmark
+    public List<Graph.Edge<Cell, Void>> acrossOpenGrid() throws ImpossiblePathException {
+        return pathfinder.findPathFrom(start, end, graph, chebyshevDistance);
+    }
+
+    public static void main(final String... args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AStarPathfinderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
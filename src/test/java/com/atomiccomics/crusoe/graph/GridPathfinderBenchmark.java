@@ -0,0 +1,66 @@
+package com.atomiccomics.crusoe.graph;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridPathfinderBenchmark {
+
+    @Param({"2048", "4096"})
+    private int size;
+
+    @Param({"astar", "jps", "hpa"})
+    private String algorithm;
+
+    @Param({"1", "20"})
+    private int obstaclesPerThousand;
+
+    private GridPathfinder pathfinder;
+    private Grid grid;
+    private int start;
+    private int end;
+
+    @Setup
+    public void buildMostlyOpenIsland() {
+        pathfinder = switch(algorithm) {
+            case "jps" -> new JumpPointSearchPathfinder();
+            case "hpa" -> new HierarchicalPathfinder();
+            default -> new GridAStarPathfinder();
+        };
+
+        final var random = new Random(2048);
+        grid = new Grid(size, size);
+        for(int cell = 0; cell < grid.size(); cell++) {
+            if(random.nextInt(1000) < obstaclesPerThousand) {
+                grid.setCost(grid.x(cell), grid.y(cell), Grid.IMPASSABLE);
+            }
+        }
+        start = grid.index(10, 10);
+        end = grid.index(size - 10, size - 700);
+        grid.setCost(10, 10, 1);
+        grid.setCost(size - 10, size - 700, 1);
+        pathfinder.gridReplaced(grid);
+    }
+
+    @Benchmark
+    public int[] crossMap() throws ImpossiblePathException {
+        return pathfinder.findPathFrom(start, end, grid, GridHeuristic.CHEBYSHEV);
+    }
+
+    public static void main(final String... args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GridPathfinderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
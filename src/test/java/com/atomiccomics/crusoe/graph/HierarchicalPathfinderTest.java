@@ -0,0 +1,50 @@
+package com.atomiccomics.crusoe.graph;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class HierarchicalPathfinderTest {
+
+    @Test
+    void repeatedEditsOnACornerLeaveTheCrossingsAsTheyWere() {
+        final var grid = new Grid(32, 32);
+        final var pathfinder = new HierarchicalPathfinder(4);
+        pathfinder.gridReplaced(grid);
+        final var crossings = pathfinder.crossingCount();
+        final var exits = pathfinder.exitCount();
+
+        for(int cycle = 0; cycle < 10; cycle++) {
+            grid.setCost(4, 8, Grid.IMPASSABLE);
+            pathfinder.cellChanged(grid, 4, 8);
+            grid.setCost(4, 8, 1);
+            pathfinder.cellChanged(grid, 4, 8);
+        }
+
+        MatcherAssert.assertThat(pathfinder.crossingCount(), is(crossings));
+        MatcherAssert.assertThat(pathfinder.exitCount(), is(exits));
+    }
+
+    @Test
+    void editsLeaveTheSameCrossingsAsBuildingFromScratch() {
+        final var random = new Random(3);
+        final var grid = new Grid(29, 23);
+        final var pathfinder = new HierarchicalPathfinder(4);
+        pathfinder.gridReplaced(grid);
+
+        for(int edit = 0; edit < 500; edit++) {
+            final var cell = random.nextInt(grid.size());
+            grid.setCost(grid.x(cell), grid.y(cell), random.nextBoolean() ? Grid.IMPASSABLE : 1);
+            pathfinder.cellChanged(grid, grid.x(cell), grid.y(cell));
+        }
+
+        final var rebuilt = new HierarchicalPathfinder(4);
+        rebuilt.gridReplaced(grid);
+        MatcherAssert.assertThat(pathfinder.crossingCount(), is(rebuilt.crossingCount()));
+        MatcherAssert.assertThat(pathfinder.exitCount(), is(rebuilt.exitCount()));
+    }
+
+}
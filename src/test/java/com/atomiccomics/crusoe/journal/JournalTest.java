@@ -0,0 +1,319 @@
+package com.atomiccomics.crusoe.journal;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.atomiccomics.crusoe.*;
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.event.EventCodec;
+import com.atomiccomics.crusoe.item.Item;
+import com.atomiccomics.crusoe.player.DestinationCleared;
+import com.atomiccomics.crusoe.player.DestinationUpdated;
+import com.atomiccomics.crusoe.player.ItemDropped;
+import com.atomiccomics.crusoe.player.ItemPickedUp;
+import com.atomiccomics.crusoe.world.*;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+
+public class JournalTest {
+
+    private static final int SMALL_SEGMENT = 512;
+
+    private static List<Event<?>> randomBatch(final Random random) {
+        final var batch = new ArrayList<Event<?>>();
+        final var size = random.nextInt(6) + 1;
+        for(int i = 0; i < size; i++) {
+            final var location = new World.Coordinates(random.nextInt(1 << 20), random.nextInt(1 << 20));
+            final var direction = World.Direction.values()[random.nextInt(World.Direction.values().length)];
+            batch.add(switch(random.nextInt(17)) {
+                case 0 -> Event.create(new WorldResized(new World.Dimensions(location.x() + 1, location.y() + 1)));
+                case 1 -> Event.create(new PlayerMoved(random.nextInt(1 << 12), new World.Player(location, direction)));
+                case 2 -> Event.create(new WallBuilt(location));
+                case 3 -> Event.create(new WallDestroyed(location));
+                case 4 -> Event.create(new WallBlueprintPlaced(location));
+                case 5 -> Event.create(new ItemPlaced(Item.PICKAXE, location));
+                case 6 -> Event.create(new ItemRemoved(Item.PICKAXE, location));
+                case 7 -> Event.create(new ItemPickedUp(Item.PICKAXE));
+                case 8 -> Event.create(new ItemDropped(Item.PICKAXE));
+                case 9 -> Event.create(new DestinationUpdated(random.nextInt(1 << 12), location));
+                case 10 -> Event.create(new DestinationCleared(random.nextInt(1 << 12)));
+                case 11 -> Event.create(new GamePaused());
+                case 12 -> Event.create(new GameResumed());
+                case 13 -> Event.create(new PlayerSelected());
+                case 14 -> Event.create(new PlayerDeselected());
+                case 15 -> Event.create(new WallBlueprintActivated());
+                default -> Event.create(new WallBlueprintDeactivated());
+            });
+        }
+        return batch;
+    }
+
+    private static List<List<Event<?>>> replay(final Journal journal) throws IOException {
+        final var batches = new ArrayList<List<Event<?>>>();
+        journal.replay(batches::add);
+        return batches;
+    }
+
+    @Test
+    void reopenedJournalReplaysEveryBatchAcrossSegments(@TempDir final Path directory) throws IOException {
+        final var random = new Random(18);
+        final var journal = Journal.open(directory, SMALL_SEGMENT);
+        final var expected = new ArrayList<List<Event<?>>>();
+        for(int i = 0; i < 200; i++) {
+            final var batch = randomBatch(random);
+            journal.commit(journal.append(batch));
+            expected.add(batch);
+        }
+
+        MatcherAssert.assertThat(Files.list(directory).count() > 1, is(true));
+        MatcherAssert.assertThat(replay(Journal.open(directory, SMALL_SEGMENT)), is(expected));
+    }
+
+    @Test
+    void journalIsEmptyUntilSomethingIsAppended(@TempDir final Path directory) throws IOException {
+        final var journal = Journal.open(directory, SMALL_SEGMENT);
+        MatcherAssert.assertThat(journal.isEmpty(), is(true));
+        MatcherAssert.assertThat(Journal.open(directory, SMALL_SEGMENT).isEmpty(), is(true));
+
+        journal.commit(journal.append(randomBatch(new Random(3))));
+        MatcherAssert.assertThat(journal.isEmpty(), is(false));
+        MatcherAssert.assertThat(Journal.open(directory, SMALL_SEGMENT).isEmpty(), is(false));
+    }
+
+    @Test
+    void batchCutOffMidWriteIsDroppedAndWrittenOver(@TempDir final Path directory) throws IOException {
+        final var random = new Random(7);
+        final var journal = Journal.open(directory, SMALL_SEGMENT);
+        final var first = randomBatch(random);
+        final var second = randomBatch(random);
+        journal.append(first);
+        journal.commit(journal.append(second));
+
+        /* Flip the last byte of the second batch, as if the write had never reached it */
+        final var segment = directory.resolve(String.format("%016d.journal", 0));
+        final var secondEnds = Segment.PREAMBLE_SIZE + 2 * Segment.HEADER_SIZE
+                + EventCodec.encode(first).remaining()
+                + EventCodec.encode(second).remaining();
+        try(final var channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var last = ByteBuffer.allocate(1);
+            channel.read(last, secondEnds - 1);
+            channel.write(ByteBuffer.wrap(new byte[] { (byte)~last.get(0) }), secondEnds - 1);
+        }
+
+        final var reopened = Journal.open(directory, SMALL_SEGMENT);
+        MatcherAssert.assertThat(replay(reopened), is(List.of(first)));
+
+        final var third = randomBatch(random);
+        reopened.commit(reopened.append(third));
+        MatcherAssert.assertThat(replay(Journal.open(directory, SMALL_SEGMENT)), is(List.of(first, third)));
+    }
+
+    @Test
+    void segmentsInAnotherFormatAreRefused(@TempDir final Path directory) throws IOException {
+        final var journal = Journal.open(directory, SMALL_SEGMENT);
+        journal.commit(journal.append(randomBatch(new Random(5))));
+
+        /* Claim the segment was written in a format from some other version */
+        final var segment = directory.resolve(String.format("%016d.journal", 0));
+        try(final var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 99), Integer.BYTES);
+        }
+
+        Assertions.assertThrows(IOException.class, () -> Journal.open(directory, SMALL_SEGMENT));
+        Assertions.assertThrows(IOException.class, () -> replay(journal));
+    }
+
+    @Test
+    void concurrentAppendsAreAllJournalled(@TempDir final Path directory) throws Exception {
+        final var journal = Journal.open(directory, SMALL_SEGMENT);
+        final var threads = 4;
+        final var perThread = 300;
+
+        final var workers = new ArrayList<Thread>();
+        for(int t = 0; t < threads; t++) {
+            final var row = t;
+            workers.add(new Thread(() -> {
+                for(int x = 0; x < perThread; x++) {
+                    journal.commit(journal.append(List.of(Event.create(new WallBuilt(new World.Coordinates(x, row))))));
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for(final var worker : workers) {
+            worker.join();
+        }
+
+        /* Each writer's batches come back in the order it wrote them, whatever happened between writers */
+        final var nextExpected = new int[threads];
+        for(final var batch : replay(Journal.open(directory, SMALL_SEGMENT))) {
+            final var location = ((WallBuilt)batch.get(0).payload()).location();
+            MatcherAssert.assertThat(location.x(), is(nextExpected[location.y()]));
+            nextExpected[location.y()]++;
+        }
+        MatcherAssert.assertThat(nextExpected, is(new int[] { perThread, perThread, perThread, perThread }));
+    }
+
+    @Test
+    void engineRebuildsItsStateFromTheJournal(@TempDir final Path directory) throws IOException {
+        final var original = new Engine(Journal.open(directory));
+        final var seen = new ArrayList<Event<?>>();
+        original.register(seen::addAll);
+        original.updateWorld(w -> w.resize(new World.Dimensions(16, 16)));
+        original.updateWorld(w -> w.spawnPlayerAt(new World.Coordinates(2, 2)));
+        original.updateWorld(w -> w.buildWallAt(new World.Coordinates(5, 5)));
+        original.updatePlayer(p -> p.pickUpItem(Item.PICKAXE));
+        original.updateGame(Game::pause);
+
+        final var restored = new Engine(Journal.open(directory));
+        final var replayed = new ArrayList<Event<?>>();
+        restored.register(replayed::addAll);
+        restored.replayJournal();
+
+        MatcherAssert.assertThat(replayed, is(seen));
+        /* Building the same wall again is a no-op only if the restored world already has it */
+        replayed.clear();
+        restored.updateWorld(w -> w.buildWallAt(new World.Coordinates(5, 5)));
+        MatcherAssert.assertThat(replayed, is(List.of()));
+    }
+
+    /* Puts a wall down wherever the world is resized to, as a stand-in for a component that acts on what happens */
+    public static final class Surveyor {
+        private final Engine engine;
+        private int acted;
+
+        public Surveyor(final Engine engine) {
+            this.engine = engine;
+        }
+
+        @Handler(value = WorldResized.class, replayed = false)
+        public void handleWorldResized(final WorldResized event) {
+            acted++;
+            engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(event.dimensions().width() - 1, 0)));
+        }
+    }
+
+    @Test
+    void replayingTheJournalNeitherActsOnItNorJournalsAnythingNew(@TempDir final Path directory) throws IOException {
+        final var original = new Engine(Journal.open(directory));
+        final var surveyor = new Surveyor(original);
+        final var seen = new ArrayList<Event<?>>();
+        original.register(Component.wrap(surveyor));
+        original.register(seen::addAll);
+        original.updateWorld(w -> w.resize(new World.Dimensions(16, 16)));
+        MatcherAssert.assertThat(surveyor.acted, is(1));
+
+        final var restored = new Engine(Journal.open(directory));
+        final var restoredSurveyor = new Surveyor(restored);
+        final var replayed = new ArrayList<Event<?>>();
+        restored.register(Component.wrap(restoredSurveyor));
+        /* A component that doesn't tell replays apart still can't change anything while one is under way */
+        restored.register(batch -> {
+            replayed.addAll(batch);
+            restored.updateWorld(w -> w.buildWallAt(new World.Coordinates(7, 7)));
+        });
+        restored.replayJournal();
+
+        MatcherAssert.assertThat(replayed, is(seen));
+        MatcherAssert.assertThat(restoredSurveyor.acted, is(0));
+        MatcherAssert.assertThat(replay(Journal.open(directory)).stream().mapToInt(List::size).sum(), is(seen.size()));
+    }
+
+    @Test
+    void destinationsDescribedBySnapshotsAreOnlyReplayed(@TempDir final Path directory) throws IOException {
+        final var journalDirectory = directory.resolve("journal");
+        final var snapshotDirectory = directory.resolve("snapshots");
+
+        final var snapshots = Snapshots.open(snapshotDirectory, 1, Duration.ofHours(1));
+        final var original = new Engine(Journal.open(journalDirectory), snapshots);
+        original.updateWorld(w -> w.resize(new World.Dimensions(8, 8)));
+        original.updateWorld(w -> w.spawnPlayerAt(new World.Coordinates(1, 1)));
+        original.updatePlayer(p -> p.setDestination(World.PLAYER_ENTITY, new World.Coordinates(6, 6)));
+        snapshots.close();
+
+        final var restoredSnapshots = Snapshots.open(snapshotDirectory, 1, Duration.ofHours(1));
+        final var restored = new Engine(Journal.open(journalDirectory), restoredSnapshots);
+        final var acted = new ArrayList<DestinationUpdated>();
+        final var remembered = new ArrayList<DestinationUpdated>();
+        restored.register(Component.wrap(new Object() {
+            @Handler(DestinationUpdated.class)
+            public void handleDestinationUpdated(final DestinationUpdated event) {
+                remembered.add(event);
+            }
+        }));
+        restored.register(Component.wrap(new Object() {
+            @Handler(value = DestinationUpdated.class, replayed = false)
+            public void handleDestinationUpdated(final DestinationUpdated event) {
+                acted.add(event);
+            }
+        }));
+        restored.replayJournal();
+
+        MatcherAssert.assertThat(remembered, is(List.of(new DestinationUpdated(World.PLAYER_ENTITY, new World.Coordinates(6, 6)))));
+        MatcherAssert.assertThat(acted, is(List.of()));
+
+        /* Once the replay is over, new destinations are acted on as usual */
+        restored.updatePlayer(p -> p.setDestination(World.PLAYER_ENTITY, new World.Coordinates(2, 2)));
+        MatcherAssert.assertThat(acted, is(List.of(new DestinationUpdated(World.PLAYER_ENTITY, new World.Coordinates(2, 2)))));
+        restoredSnapshots.close();
+    }
+
+    @Test
+    void engineStartsFromTheLatestSnapshotAndReplaysOnlyWhatCameAfter(@TempDir final Path directory) throws IOException {
+        final var journalDirectory = directory.resolve("journal");
+        final var snapshotDirectory = directory.resolve("snapshots");
+
+        final var snapshots = Snapshots.open(snapshotDirectory, 10, Duration.ofHours(1));
+        final var original = new Engine(Journal.open(journalDirectory), snapshots);
+        original.updateWorld(w -> w.resize(new World.Dimensions(64, 64)));
+        original.updateWorld(w -> w.buildWallAt(new World.Coordinates(40, 40)));
+        original.updateWorld(w -> w.destroyWallAt(new World.Coordinates(40, 40)));
+        original.updateWorld(w -> w.spawnPlayerAt(new World.Coordinates(1, 1)));
+        original.updatePlayer(p -> p.pickUpItem(Item.PICKAXE));
+        original.updateGame(Game::resume);
+        final var expectedWalls = new HashSet<World.Coordinates>();
+        for(int x = 0; x < 25; x++) {
+            final var wall = new World.Coordinates(x, 10);
+            original.updateWorld(w -> w.buildWallAt(wall));
+            expectedWalls.add(wall);
+        }
+        snapshots.close();
+
+        final var restoredSnapshots = Snapshots.open(snapshotDirectory, 10, Duration.ofHours(1));
+        final var restored = new Engine(Journal.open(journalDirectory), restoredSnapshots);
+        final var replayed = new ArrayList<Event<?>>();
+        final var walls = new HashSet<World.Coordinates>();
+        restored.register(batch -> {
+            replayed.addAll(batch);
+            for(final var event : batch) {
+                if(event.payload() instanceof WallBuilt) {
+                    walls.add(((WallBuilt)event.payload()).location());
+                } else if(event.payload() instanceof WallDestroyed) {
+                    walls.remove(((WallDestroyed)event.payload()).location());
+                }
+            }
+        });
+        restored.replayJournal();
+
+        MatcherAssert.assertThat(walls, is(expectedWalls));
+        /* The wall built and destroyed early on is long gone by the latest snapshot, so its events are never replayed */
+        MatcherAssert.assertThat(replayed.stream().anyMatch(e -> e.payload() instanceof WallDestroyed), is(false));
+
+        replayed.clear();
+        restored.updateWorld(w -> w.buildWallAt(new World.Coordinates(24, 10)));
+        restored.updatePlayer(p -> p.pickUpItem(Item.PICKAXE));
+        restored.updateGame(Game::resume);
+        MatcherAssert.assertThat(replayed, is(List.of()));
+        restoredSnapshots.close();
+    }
+
+}
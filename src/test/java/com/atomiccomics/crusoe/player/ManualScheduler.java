@@ -0,0 +1,36 @@
+package com.atomiccomics.crusoe.player;
+
+import com.atomiccomics.crusoe.time.RepeatingTask;
+import com.atomiccomics.crusoe.time.Schedule;
+import com.atomiccomics.crusoe.time.Scheduler;
+import com.atomiccomics.crusoe.time.Tick;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Runs its tasks only when a test ticks it, every task on every tick */
+final class ManualScheduler implements Scheduler {
+    final List<RepeatingTask> tasks = new ArrayList<>();
+    private long ticks;
+
+    @Override
+    public Schedule scheduleRepeatingTask(final RepeatingTask task) {
+        tasks.add(task);
+        return () -> tasks.remove(task);
+    }
+
+    @Override
+    public Schedule scheduleRepeatingTask(final Duration period, final RepeatingTask task) {
+        return scheduleRepeatingTask(task);
+    }
+
+    void tick() {
+        final var tick = new Tick(ticks++, Duration.ofMillis(50));
+        for(final var task : List.copyOf(tasks)) {
+            if(task.doWork(tick, Runnable::run)) {
+                tasks.remove(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.atomiccomics.crusoe.player;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.atomiccomics.crusoe.Component;
+import com.atomiccomics.crusoe.Engine;
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.world.Grapher;
+import com.atomiccomics.crusoe.world.PlayerMoved;
+import com.atomiccomics.crusoe.world.World;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class NavigatorTest {
+
+    private static final int FIRST = World.PLAYER_ENTITY + 1;
+    private static final int SECOND = FIRST + 1;
+
+    private final Engine engine = new Engine();
+    private final Grapher grapher = new Grapher();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final List<Event<?>> events = new ArrayList<>();
+    private Router router;
+
+    @BeforeEach
+    void setUp() {
+        router = new Router(grapher, engine::updatePlayer, scheduler, 4, 1);
+        engine.register(Component.wrap(grapher));
+        engine.register(Component.wrap(new Navigator(grapher, router, engine::updateWorld, engine::updatePlayer, scheduler)));
+        engine.register(events::addAll);
+
+        /* A corridor one tile wide, running east to west */
+        engine.updateWorld(w -> w.resize(new World.Dimensions(8, 3)));
+        for(int x = 0; x < 8; x++) {
+            final var south = new World.Coordinates(x, 0);
+            final var north = new World.Coordinates(x, 2);
+            engine.updateWorld(w -> w.buildWallAt(south));
+            engine.updateWorld(w -> w.buildWallAt(north));
+        }
+    }
+
+    @AfterEach
+    void shutDownRouter() {
+        router.shutdown();
+    }
+
+    private void spawn(final World.Coordinates location) {
+        engine.updateWorld(w -> w.spawnColonistAt(location));
+    }
+
+    private void send(final int entity, final World.Coordinates destination) {
+        engine.updatePlayer(p -> p.setDestination(entity, destination));
+    }
+
+    private void tick(final int times) {
+        for(int i = 0; i < times; i++) {
+            scheduler.tick();
+        }
+    }
+
+    private <T> List<T> delivered(final Class<T> type) {
+        return events.stream()
+                .map(Event::payload)
+                .filter(type::isInstance)
+                .map(type::cast)
+                .collect(Collectors.toList());
+    }
+
+    private World.Coordinates positionOf(final int entity) {
+        final var moves = delivered(PlayerMoved.class).stream().filter(m -> m.entity() == entity).collect(Collectors.toList());
+        return moves.get(moves.size() - 1).player().position();
+    }
+
+    @Test
+    void colonistWaitsForTheWayToClearAndCarriesOn() {
+        spawn(new World.Coordinates(0, 1));
+        spawn(new World.Coordinates(2, 1));
+        send(FIRST, new World.Coordinates(4, 1));
+
+        /* Found a route, took a step, then walked into the one standing in the way */
+        tick(4);
+        MatcherAssert.assertThat(positionOf(FIRST), is(new World.Coordinates(1, 1)));
+
+        for(int i = 0; i < 3; i++) {
+            engine.updateWorld(w -> w.move(SECOND, World.Direction.EAST));
+        }
+        tick(20);
+
+        MatcherAssert.assertThat(positionOf(FIRST), is(new World.Coordinates(4, 1)));
+        MatcherAssert.assertThat(delivered(RouteFound.class).size(), is(1));
+        MatcherAssert.assertThat(delivered(DestinationCleared.class), is(List.of(new DestinationCleared(FIRST))));
+        MatcherAssert.assertThat(scheduler.tasks.isEmpty(), is(true));
+    }
+
+    @Test
+    void colonistSentWhereItStandsIsAlreadyThere() {
+        spawn(new World.Coordinates(3, 1));
+        send(FIRST, new World.Coordinates(3, 1));
+
+        tick(3);
+
+        MatcherAssert.assertThat(delivered(RouteFound.class), is(List.of(new RouteFound(FIRST, new World.Coordinates(3, 1), new World.Coordinates(3, 1), List.of()))));
+        MatcherAssert.assertThat(delivered(RouteNotFound.class), is(List.of()));
+        MatcherAssert.assertThat(delivered(DestinationCleared.class), is(List.of(new DestinationCleared(FIRST))));
+    }
+
+    @Test
+    void colonistsMeetingHeadOnLookForAnotherWayAndThenGiveUp() {
+        spawn(new World.Coordinates(0, 1));
+        spawn(new World.Coordinates(7, 1));
+        send(FIRST, new World.Coordinates(7, 1));
+        send(SECOND, new World.Coordinates(0, 1));
+
+        tick(100);
+
+        /* The first route each, plus one for every detour, and then both let their destinations go */
+        MatcherAssert.assertThat(delivered(RouteFound.class).size(), is(2 * (1 + Navigator.DETOURS)));
+        MatcherAssert.assertThat(Set.copyOf(delivered(DestinationCleared.class)), is(Set.of(new DestinationCleared(FIRST), new DestinationCleared(SECOND))));
+        MatcherAssert.assertThat(positionOf(FIRST).x() < positionOf(SECOND).x(), is(true));
+        MatcherAssert.assertThat(scheduler.tasks.isEmpty(), is(true));
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.atomiccomics.crusoe.player;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.atomiccomics.crusoe.Component;
+import com.atomiccomics.crusoe.Engine;
+import com.atomiccomics.crusoe.event.Event;
+import com.atomiccomics.crusoe.world.Grapher;
+import com.atomiccomics.crusoe.world.World;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RouterTest {
+
+    private static final World.Coordinates START = new World.Coordinates(0, 0);
+    private static final World.Coordinates ACROSS = new World.Coordinates(7, 7);
+
+    private final Engine engine = new Engine();
+    private final Grapher grapher = new Grapher();
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final List<Event<?>> events = new ArrayList<>();
+    private Router router;
+
+    @AfterEach
+    void shutDownRouter() {
+        router.shutdown();
+    }
+
+    private void setUp(final int budget) {
+        router = new Router(grapher, engine::updatePlayer, scheduler, budget, 4);
+        engine.register(Component.wrap(grapher));
+        engine.register(events::addAll);
+
+        engine.updateWorld(w -> w.resize(new World.Dimensions(8, 8)));
+        /* A wall down the middle with a gap at the top, and a tile walled off in the corner */
+        for(int y = 0; y < 7; y++) {
+            final var location = new World.Coordinates(4, y);
+            engine.updateWorld(w -> w.buildWallAt(location));
+        }
+        engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(0, 6)));
+        engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(1, 6)));
+        engine.updateWorld(w -> w.buildWallAt(new World.Coordinates(1, 7)));
+        events.clear();
+    }
+
+    private void request(final int entity, final World.Coordinates start, final World.Coordinates destination) {
+        engine.updatePlayer(p -> p.setDestination(entity, destination));
+        router.request(entity, start, destination);
+    }
+
+    private <T> List<T> delivered(final Class<T> type) {
+        return events.stream()
+                .map(Event::payload)
+                .filter(type::isInstance)
+                .map(type::cast)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void identicalRequestsShareOneSearchAndTheBudgetSpreadsTheRestOverLaterTicks() {
+        setUp(1);
+        for(int entity = 0; entity < 10; entity++) {
+            request(entity, START, ACROSS);
+        }
+        request(10, new World.Coordinates(3, 0), ACROSS);
+        MatcherAssert.assertThat(delivered(RouteFound.class).size(), is(0));
+
+        scheduler.tick();
+        final var first = delivered(RouteFound.class);
+        MatcherAssert.assertThat(first.stream().map(RouteFound::entity).collect(Collectors.toList()), is(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)));
+
+        scheduler.tick();
+        final var all = delivered(RouteFound.class);
+        MatcherAssert.assertThat(all.size(), is(11));
+        MatcherAssert.assertThat(all.get(10).entity(), is(10));
+        for(final var route : all) {
+            var location = route.start();
+            for(final var step : route.steps()) {
+                location = location.moveTowards(step);
+                MatcherAssert.assertThat(location.x() != 4 || location.y() == 7, is(true));
+            }
+            MatcherAssert.assertThat(location, is(ACROSS));
+        }
+        MatcherAssert.assertThat(router.statistics(), is(new Router.Statistics(11, 2)));
+
+        /* Nothing left, so the task finishes */
+        scheduler.tick();
+        MatcherAssert.assertThat(scheduler.tasks.isEmpty(), is(true));
+    }
+
+    @Test
+    void unreachableDestinationsAreGivenUpOnWithoutASearch() {
+        setUp(4);
+        request(3, START, new World.Coordinates(0, 7));
+
+        MatcherAssert.assertThat(delivered(RouteNotFound.class), is(List.of(new RouteNotFound(3, new World.Coordinates(0, 7)))));
+        MatcherAssert.assertThat(delivered(DestinationCleared.class), is(List.of(new DestinationCleared(3))));
+        MatcherAssert.assertThat(router.statistics(), is(new Router.Statistics(0, 0)));
+    }
+
+    @Test
+    void answersForDestinationsSinceChangedAreDropped() {
+        setUp(4);
+        request(0, START, ACROSS);
+        engine.updatePlayer(p -> p.setDestination(0, new World.Coordinates(2, 2)));
+
+        scheduler.tick();
+
+        MatcherAssert.assertThat(delivered(RouteFound.class).size(), is(0));
+    }
+
+}
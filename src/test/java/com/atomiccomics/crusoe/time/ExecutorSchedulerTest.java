@@ -0,0 +1,148 @@
+package com.atomiccomics.crusoe.time;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class ExecutorSchedulerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /* Never resumed, so the clock only moves when a test advances it */
+    private final ScheduledExecutorService pool = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void runsOneTickForEveryWholeTickOfTimePassed() {
+        final var scheduler = new ExecutorScheduler(pool, 20);
+        final var seen = new ArrayList<Tick>();
+        scheduler.scheduleRepeatingTask((tick, commands) -> {
+            seen.add(tick);
+            return false;
+        });
+
+        scheduler.restart(0);
+        scheduler.advance(49 * MILLIS);
+        MatcherAssert.assertThat(seen.size(), is(0));
+        scheduler.advance(50 * MILLIS);
+        scheduler.advance(175 * MILLIS);
+        scheduler.advance(200 * MILLIS);
+
+        final var delta = Duration.ofMillis(50);
+        MatcherAssert.assertThat(seen, is(List.of(new Tick(0, delta), new Tick(1, delta), new Tick(2, delta), new Tick(3, delta))));
+    }
+
+    @Test
+    void catchesUpOnlyAFewTicksAfterAStall() {
+        final var scheduler = new ExecutorScheduler(pool, 20);
+        final var seen = new ArrayList<Tick>();
+        scheduler.scheduleRepeatingTask((tick, commands) -> {
+            seen.add(tick);
+            return false;
+        });
+
+        scheduler.restart(0);
+        scheduler.advance(10_000 * MILLIS);
+        MatcherAssert.assertThat(seen.size(), is(5));
+        MatcherAssert.assertThat(scheduler.load().dropped(), is(195L));
+
+        /* Back on schedule afterwards, one tick per tick of time */
+        scheduler.advance(10_050 * MILLIS);
+        MatcherAssert.assertThat(seen.size(), is(6));
+        MatcherAssert.assertThat(scheduler.load().ticks(), is(6L));
+    }
+
+    @Test
+    void tasksCanRunAtTheirOwnSlowerRateAndFinish() {
+        final var scheduler = new ExecutorScheduler(pool, 20);
+        final var ran = new ArrayList<Long>();
+        scheduler.scheduleRepeatingTask((tick, commands) -> {
+            if(!tick.isEvery(Duration.ofMillis(200))) {
+                return false;
+            }
+            ran.add(tick.number());
+            return ran.size() == 3;
+        });
+
+        scheduler.restart(0);
+        for(long now = 50; now <= 2_000; now += 50) {
+            scheduler.advance(now * MILLIS);
+        }
+
+        MatcherAssert.assertThat(ran, is(List.of(0L, 4L, 8L)));
+    }
+
+    @Test
+    void delayedTasksRunOnTheTickTheirDelayRoundsUpTo() {
+        final var scheduler = new ExecutorScheduler(pool, 20);
+        final var once = new ArrayList<Long>();
+        final var periodic = new ArrayList<Long>();
+        scheduler.scheduleOnce(Duration.ofMillis(120), (tick, commands) -> once.add(tick.number()));
+        final var schedule = scheduler.scheduleRepeatingTask(Duration.ofMillis(100), (tick, commands) -> {
+            periodic.add(tick.number());
+            return false;
+        });
+
+        scheduler.restart(0);
+        for(long now = 50; now <= 300; now += 50) {
+            scheduler.advance(now * MILLIS);
+        }
+        schedule.cancel();
+        for(long now = 350; now <= 600; now += 50) {
+            scheduler.advance(now * MILLIS);
+        }
+
+        MatcherAssert.assertThat(once, is(List.of(2L)));
+        MatcherAssert.assertThat(periodic, is(List.of(1L, 3L, 5L)));
+    }
+
+    @Test
+    void parallelTasksCommandsRunInTheOrderTheTasksWereScheduled() {
+        final var scheduler = new ExecutorScheduler(pool, 20, 4);
+        final var applied = new ArrayList<Integer>();
+        final var workerThreads = ConcurrentHashMap.<Thread>newKeySet();
+        final var taskCount = 50;
+        for(int i = 0; i < taskCount; i++) {
+            final var id = i;
+            scheduler.scheduleRepeatingTask((tick, commands) -> {
+                workerThreads.add(Thread.currentThread());
+                /* Finish in a different order from the one the tasks were scheduled in */
+                LockSupport.parkNanos((taskCount - id) * 10_000L);
+                commands.execute(() -> applied.add(id));
+                commands.execute(() -> applied.add(-id));
+                return tick.number() == 1;
+            });
+        }
+
+        scheduler.restart(0);
+        scheduler.advance(150 * MILLIS);
+        scheduler.shutdown();
+
+        final var expected = new ArrayList<Integer>();
+        for(int tick = 0; tick < 2; tick++) {
+            for(int i = 0; i < taskCount; i++) {
+                expected.add(i);
+                expected.add(-i);
+            }
+        }
+        MatcherAssert.assertThat(applied, is(expected));
+        MatcherAssert.assertThat(workerThreads.contains(Thread.currentThread()), is(false));
+        MatcherAssert.assertThat(scheduler.load().ticks(), is(3L));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.atomiccomics.crusoe.time;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.pholser.junit.quickcheck.From;
+import com.pholser.junit.quickcheck.Property;
+import com.pholser.junit.quickcheck.generator.GenerationStatus;
+import com.pholser.junit.quickcheck.generator.Generator;
+import com.pholser.junit.quickcheck.random.SourceOfRandomness;
+import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
+import org.hamcrest.MatcherAssert;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+@RunWith(JUnitQuickcheck.class)
+public class TimerWheelTest {
+
+    /* Schedule a timer this far ahead, cancel the timer at this position among those scheduled, or move on this many ticks */
+    public record Operation(char kind, long amount) {
+
+    }
+
+    public record Script(long start, List<Operation> operations) {
+
+    }
+
+    public static final class ScriptGenerator extends Generator<Script> {
+
+        public ScriptGenerator() {
+            super(Script.class);
+        }
+
+        @Override
+        public Script generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            /* Start just short of where one or more wheels come round, so cascades and the overflow get exercised */
+            final var start = (1L << (8 * sourceOfRandomness.nextInt(1, 4))) - sourceOfRandomness.nextInt(0, 300);
+            final var count = sourceOfRandomness.nextInt(1, 300);
+            final var operations = new ArrayList<Operation>(count);
+            for(int i = 0; i < count; i++) {
+                operations.add(switch(sourceOfRandomness.nextInt(0, 5)) {
+                    case 0, 1 -> new Operation('s', sourceOfRandomness.nextLong(1, 1L << (4 * sourceOfRandomness.nextInt(1, 4))));
+                    case 2 -> new Operation('c', sourceOfRandomness.nextInt(0, 1000));
+                    default -> new Operation('a', sourceOfRandomness.nextInt(1, 600));
+                });
+            }
+            return new Script(start, operations);
+        }
+    }
+
+    @Property
+    public void timersExpireOnTheirDeadlineInTheOrderTheyWereScheduled(@From(ScriptGenerator.class) final Script script) {
+        final var wheel = new TimerWheel<Integer>(script.start());
+        final var scheduled = new ArrayList<TimerWheel.Timer<Integer>>();
+        /* The timers still pending, in the order they were scheduled */
+        final var pending = new LinkedHashMap<Integer, Long>();
+
+        final var expired = new ArrayList<Integer>();
+        final var expected = new ArrayList<Integer>();
+        final Runnable advance = () -> {
+            wheel.advance(timer -> expired.add(timer.value()));
+            pending.entrySet().removeIf(timer -> {
+                if(timer.getValue() == wheel.now()) {
+                    expected.add(timer.getKey());
+                    return true;
+                }
+                return false;
+            });
+            MatcherAssert.assertThat(expired, is(expected));
+        };
+
+        for(final var operation : script.operations()) {
+            switch(operation.kind()) {
+                case 's' -> {
+                    final var deadline = wheel.now() + operation.amount();
+                    scheduled.add(wheel.schedule(deadline, scheduled.size()));
+                    pending.put(scheduled.size() - 1, deadline);
+                }
+                case 'c' -> {
+                    if(!scheduled.isEmpty()) {
+                        final var position = (int)(operation.amount() % scheduled.size());
+                        wheel.cancel(scheduled.get(position));
+                        pending.remove(position);
+                    }
+                }
+                default -> {
+                    for(long i = 0; i < operation.amount(); i++) {
+                        advance.run();
+                    }
+                }
+            }
+            MatcherAssert.assertThat(wheel.size(), is(pending.size()));
+        }
+
+        while(!pending.isEmpty()) {
+            advance.run();
+        }
+        MatcherAssert.assertThat(wheel.size(), is(0));
+    }
+
+}
@@ -0,0 +1,262 @@
+package com.atomiccomics.crusoe.world;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import com.atomiccomics.crusoe.graph.AStarPathfinder;
+import com.atomiccomics.crusoe.graph.BidirectionalAStarPathfinder;
+import com.atomiccomics.crusoe.graph.Graph;
+import com.atomiccomics.crusoe.graph.GridHeuristic;
+import com.atomiccomics.crusoe.graph.ImpossiblePathException;
+import com.pholser.junit.quickcheck.From;
+import com.pholser.junit.quickcheck.Property;
+import com.pholser.junit.quickcheck.generator.GenerationStatus;
+import com.pholser.junit.quickcheck.generator.Generator;
+import com.pholser.junit.quickcheck.random.SourceOfRandomness;
+import com.pholser.junit.quickcheck.runner.JUnitQuickcheck;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.runner.RunWith;
+
+import java.util.*;
+
+@RunWith(JUnitQuickcheck.class)
+public class GrapherTest {
+
+    private static final World.Dimensions DIMENSIONS = new World.Dimensions(12, 9);
+
+    public record WallToggles(List<World.Coordinates> locations) {
+
+    }
+
+    public static final class WallTogglesGenerator extends Generator<WallToggles> {
+
+        public WallTogglesGenerator() {
+            super(WallToggles.class);
+        }
+
+        @Override
+        public WallToggles generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            final var count = sourceOfRandomness.nextInt(1, 80);
+            final var locations = new ArrayList<World.Coordinates>(count);
+            for(int i = 0; i < count; i++) {
+                locations.add(new World.Coordinates(sourceOfRandomness.nextInt(0, DIMENSIONS.width() - 1),
+                        sourceOfRandomness.nextInt(0, DIMENSIONS.height() - 1)));
+            }
+            return new WallToggles(locations);
+        }
+    }
+
+    public record Island(World.Dimensions dimensions, Set<World.Coordinates> walls, World.Coordinates start, World.Coordinates end) {
+
+    }
+
+    public static final class IslandGenerator extends Generator<Island> {
+
+        public IslandGenerator() {
+            super(Island.class);
+        }
+
+        @Override
+        public Island generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            final var dimensions = new World.Dimensions(sourceOfRandomness.nextInt(2, 24), sourceOfRandomness.nextInt(2, 24));
+            final var density = sourceOfRandomness.nextInt(0, 40);
+            final var walls = new HashSet<World.Coordinates>();
+            for(int x = 0; x < dimensions.width(); x++) {
+                for(int y = 0; y < dimensions.height(); y++) {
+                    if(sourceOfRandomness.nextInt(0, 99) < density) {
+                        walls.add(new World.Coordinates(x, y));
+                    }
+                }
+            }
+
+            World.Coordinates start;
+            World.Coordinates end;
+            do {
+                start = new World.Coordinates(sourceOfRandomness.nextInt(0, dimensions.width() - 1), sourceOfRandomness.nextInt(0, dimensions.height() - 1));
+                end = new World.Coordinates(sourceOfRandomness.nextInt(0, dimensions.width() - 1), sourceOfRandomness.nextInt(0, dimensions.height() - 1));
+            } while(start.equals(end));
+            walls.remove(start);
+            walls.remove(end);
+
+            return new Island(dimensions, walls, start, end);
+        }
+    }
+
+    private static Grapher grapherFor(final Island island, final Grapher grapher) {
+        grapher.handleWorldResized(new WorldResized(island.dimensions()));
+        island.walls().forEach(w -> grapher.handleWallBuilt(new WallBuilt(w)));
+        return grapher;
+    }
+
+    private static void assertShortest(final Grapher grapher, final Island island) {
+        final List<World.Direction> shortest;
+        try {
+            shortest = grapher.findPathBetween(island.start(), island.end(), GridHeuristic.NONE);
+        } catch (final ImpossiblePathException e) {
+            Assertions.assertThrows(ImpossiblePathException.class, () -> grapher.findPathBetween(island.start(), island.end()));
+            return;
+        }
+
+        final var path = Assertions.assertDoesNotThrow(() -> grapher.findPathBetween(island.start(), island.end()));
+        MatcherAssert.assertThat(path.size(), is(shortest.size()));
+
+        var location = island.start();
+        for(final var step : path) {
+            location = location.moveTowards(step);
+            Assertions.assertTrue(island.dimensions().contains(location) && !island.walls().contains(location));
+        }
+        MatcherAssert.assertThat(location, is(island.end()));
+    }
+
+    private record Adjacency(World.Coordinates to, World.Direction via) {
+
+    }
+
+    private static Map<World.Coordinates, Set<Adjacency>> adjacencyOf(final Graph<World.Coordinates, World.Direction> graph) {
+        final var adjacency = new HashMap<World.Coordinates, Set<Adjacency>>();
+        for(final var node : graph.nodes()) {
+            final var edges = new HashSet<Adjacency>();
+            for(final var edge : graph.edges(node)) {
+                edges.add(new Adjacency(edge.to().value(), edge.via()));
+            }
+            adjacency.put(node.value(), edges);
+        }
+        return adjacency;
+    }
+
+    @Property
+    public void patchedGraphMatchesRebuiltGraph(@From(WallTogglesGenerator.class) final WallToggles toggles) {
+        final var patched = new Grapher(new AStarPathfinder());
+        patched.handleWorldResized(new WorldResized(DIMENSIONS));
+        patched.graph();
+
+        final var walls = new HashSet<World.Coordinates>();
+        for(final var location : toggles.locations()) {
+            if(walls.remove(location)) {
+                patched.handleWallDestroyed(new WallDestroyed(location));
+            } else {
+                walls.add(location);
+                patched.handleWallBuilt(new WallBuilt(location));
+            }
+        }
+
+        final var rebuilt = new Grapher(new AStarPathfinder());
+        rebuilt.handleWorldResized(new WorldResized(DIMENSIONS));
+        walls.forEach(w -> rebuilt.handleWallBuilt(new WallBuilt(w)));
+
+        MatcherAssert.assertThat(adjacencyOf(patched.graph()), is(adjacencyOf(rebuilt.graph())));
+    }
+
+    @Property
+    public void gridRoutesAreAsShortAsDijkstra(@From(IslandGenerator.class) final Island island) {
+        assertShortest(grapherFor(island, new Grapher()), island);
+    }
+
+    @Property
+    public void graphRoutesAreAsShortAsDijkstra(@From(IslandGenerator.class) final Island island) {
+        assertShortest(grapherFor(island, new Grapher(new AStarPathfinder())), island);
+    }
+
+    @Property
+    public void bidirectionalGraphRoutesAreAsShortAsDijkstra(@From(IslandGenerator.class) final Island island) {
+        assertShortest(grapherFor(island, new Grapher(new BidirectionalAStarPathfinder())), island);
+    }
+
+    @Property
+    public void cachedRoutesStayAsShortAsFreshOnes(@From(IslandGenerator.class) final Island island,
+                                                   @From(WallTogglesGenerator.class) final WallToggles toggles) {
+        final var cached = grapherFor(island, new Grapher());
+        final var walls = new HashSet<>(island.walls());
+        var queries = 0;
+        for(final var location : toggles.locations()) {
+            if(location.equals(island.start()) || location.equals(island.end())) {
+                continue;
+            }
+            if(walls.remove(location)) {
+                cached.handleWallDestroyed(new WallDestroyed(location));
+            } else {
+                walls.add(location);
+                cached.handleWallBuilt(new WallBuilt(location));
+            }
+
+            final var fresh = grapherFor(new Island(island.dimensions(), walls, island.start(), island.end()), new Grapher());
+            try {
+                final var expected = fresh.findPathBetween(island.start(), island.end());
+                final var actual = Assertions.assertDoesNotThrow(() -> cached.findPathBetween(island.start(), island.end()));
+                queries++;
+                MatcherAssert.assertThat(actual.size(), is(expected.size()));
+
+                var step = island.start();
+                for(final var direction : actual) {
+                    step = step.moveTowards(direction);
+                    Assertions.assertFalse(walls.contains(step));
+                }
+            } catch (final ImpossiblePathException e) {
+                Assertions.assertThrows(ImpossiblePathException.class, () -> cached.findPathBetween(island.start(), island.end()));
+            }
+        }
+
+        final var statistics = cached.pathCacheStatistics();
+        MatcherAssert.assertThat(statistics.hits() + statistics.misses(), is((long)queries));
+    }
+
+    private static List<World.Coordinates> openNeighbors(final World.Coordinates location, final Set<World.Coordinates> walls) {
+        final var neighbors = new ArrayList<World.Coordinates>();
+        for(int dx = -1; dx <= 1; dx++) {
+            for(int dy = -1; dy <= 1; dy++) {
+                final var x = location.x() + dx;
+                final var y = location.y() + dy;
+                if((dx != 0 || dy != 0) && x >= 0 && y >= 0) {
+                    final var neighbor = new World.Coordinates(x, y);
+                    if(DIMENSIONS.contains(neighbor) && !walls.contains(neighbor)) {
+                        neighbors.add(neighbor);
+                    }
+                }
+            }
+        }
+        return neighbors;
+    }
+
+    private static Set<World.Coordinates> floodFrom(final World.Coordinates origin, final Set<World.Coordinates> walls) {
+        final var reached = new HashSet<World.Coordinates>();
+        final var frontier = new ArrayDeque<World.Coordinates>();
+        reached.add(origin);
+        frontier.add(origin);
+        while(!frontier.isEmpty()) {
+            final var current = frontier.remove();
+            for(final var next : openNeighbors(current, walls)) {
+                if(reached.add(next)) {
+                    frontier.add(next);
+                }
+            }
+        }
+        return reached;
+    }
+
+    @Property
+    public void reachabilityMatchesFloodFill(@From(WallTogglesGenerator.class) final WallToggles toggles) {
+        final var grapher = new Grapher();
+        grapher.handleWorldResized(new WorldResized(DIMENSIONS));
+
+        final var walls = new HashSet<World.Coordinates>();
+        for(final var location : toggles.locations()) {
+            if(walls.remove(location)) {
+                grapher.handleWallDestroyed(new WallDestroyed(location));
+            } else {
+                walls.add(location);
+                grapher.handleWallBuilt(new WallBuilt(location));
+            }
+
+            for(final var origin : openNeighbors(location, walls)) {
+                final var reachable = floodFrom(origin, walls);
+                for(int x = 0; x < DIMENSIONS.width(); x++) {
+                    for(int y = 0; y < DIMENSIONS.height(); y++) {
+                        final var other = new World.Coordinates(x, y);
+                        MatcherAssert.assertThat(grapher.isReachable(origin, other), is(reachable.contains(other)));
+                    }
+                }
+            }
+        }
+    }
+
+}
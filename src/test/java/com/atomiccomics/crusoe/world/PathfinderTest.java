@@ -1,21 +1,42 @@
 package com.atomiccomics.crusoe.world;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 
 import com.atomiccomics.crusoe.graph.AStarPathfinder;
+import com.atomiccomics.crusoe.graph.BidirectionalAStarPathfinder;
 import com.atomiccomics.crusoe.graph.Graph;
+import com.atomiccomics.crusoe.graph.Grid;
+import com.atomiccomics.crusoe.graph.GridAStarPathfinder;
+import com.atomiccomics.crusoe.graph.GridHeuristic;
+import com.atomiccomics.crusoe.graph.HierarchicalPathfinder;
+import com.atomiccomics.crusoe.graph.JumpPointSearchPathfinder;
 import com.atomiccomics.crusoe.graph.ImpossiblePathException;
+import com.atomiccomics.crusoe.graph.Pathfinder;
 import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
 import java.util.function.BiFunction;
 
 public class PathfinderTest {
 
     @Test
     void pathfinderRoutesBetweenTwoPoints() throws ImpossiblePathException {
+        assertRoutesBetweenTwoPoints(new AStarPathfinder());
+    }
+
+    @Test
+    void bidirectionalPathfinderRoutesBetweenTwoPoints() throws ImpossiblePathException {
+        assertRoutesBetweenTwoPoints(new BidirectionalAStarPathfinder());
+    }
+
+    private static void assertRoutesBetweenTwoPoints(final Pathfinder pathfinder) throws ImpossiblePathException {
         //Create a graph to search
         final var builder = Graph.undirectedGraphBuilder();
 
@@ -44,7 +65,6 @@ public class PathfinderTest {
         }
 
         final var graph = builder.build();
-        final var pathfinder = new AStarPathfinder();
         final BiFunction<Graph.Node<Object>, Graph.Node<Object>, Long> manhattanDistance = (a, b) -> {
             final var xDist = Math.abs(xCoords.get(a) - xCoords.get(b));
             final var yDist = Math.abs(yCoords.get(a) - yCoords.get(b));
@@ -55,4 +75,170 @@ public class PathfinderTest {
         MatcherAssert.assertThat(path, hasSize(4));
     }
 
+    @Test
+    void gridPathfinderRoutesAroundObstacles() throws ImpossiblePathException {
+        final var grid = new Grid(3, 3);
+        grid.setCost(1, 0, Grid.IMPASSABLE);
+        grid.setCost(1, 1, Grid.IMPASSABLE);
+
+        final var pathfinder = new GridAStarPathfinder();
+        final var path = pathfinder.findPathFrom(grid.index(0, 0), grid.index(2, 0), grid, GridHeuristic.CHEBYSHEV);
+
+        MatcherAssert.assertThat(path.length, is(4));
+        MatcherAssert.assertThat(path[path.length - 1], is(grid.index(2, 0)));
+    }
+
+    @Test
+    void jumpPointSearchFindsPathsAsShortAsAStar() {
+        final var random = new Random(5);
+        final var chebyshevDistance = GridHeuristic.CHEBYSHEV;
+        final var aStar = new GridAStarPathfinder();
+        final var jumpPointSearch = new JumpPointSearchPathfinder();
+
+        for(int trial = 0; trial < 200; trial++) {
+            final var grid = new Grid(random.nextInt(30) + 2, random.nextInt(30) + 2);
+            for(int cell = 0; cell < grid.size(); cell++) {
+                if(random.nextInt(100) < 30) {
+                    grid.setCost(grid.x(cell), grid.y(cell), Grid.IMPASSABLE);
+                }
+            }
+            final var start = random.nextInt(grid.size());
+            final var end = random.nextInt(grid.size());
+            grid.setCost(grid.x(start), grid.y(start), 1);
+            grid.setCost(grid.x(end), grid.y(end), 1);
+
+            int[] expected;
+            try {
+                expected = aStar.findPathFrom(start, end, grid, chebyshevDistance);
+            } catch (final ImpossiblePathException e) {
+                Assertions.assertThrows(ImpossiblePathException.class, () -> jumpPointSearch.findPathFrom(start, end, grid, chebyshevDistance));
+                continue;
+            }
+            final var actual = Assertions.assertDoesNotThrow(() -> jumpPointSearch.findPathFrom(start, end, grid, chebyshevDistance));
+
+            MatcherAssert.assertThat(actual.length, is(expected.length));
+            var previous = start;
+            for(final var cell : actual) {
+                Assertions.assertTrue(grid.isPassable(cell));
+                Assertions.assertTrue(Math.abs(grid.x(cell) - grid.x(previous)) <= 1 && Math.abs(grid.y(cell) - grid.y(previous)) <= 1);
+                previous = cell;
+            }
+            MatcherAssert.assertThat(previous, is(end));
+        }
+    }
+
+    @Test
+    void hierarchicalPathfinderFindsARouteWheneverAStarDoes() {
+        final var random = new Random(7);
+        final var chebyshevDistance = GridHeuristic.CHEBYSHEV;
+        final var aStar = new GridAStarPathfinder();
+        final var hierarchical = new HierarchicalPathfinder(4);
+
+        for(int trial = 0; trial < 100; trial++) {
+            final var grid = new Grid(random.nextInt(30) + 2, random.nextInt(30) + 2);
+            for(int cell = 0; cell < grid.size(); cell++) {
+                if(random.nextInt(100) < 30) {
+                    grid.setCost(grid.x(cell), grid.y(cell), Grid.IMPASSABLE);
+                }
+            }
+            hierarchical.gridReplaced(grid);
+
+            for(int edit = 0; edit < 10; edit++) {
+                final var start = random.nextInt(grid.size());
+                final var end = random.nextInt(grid.size());
+                grid.setCost(grid.x(start), grid.y(start), 1);
+                hierarchical.cellChanged(grid, grid.x(start), grid.y(start));
+                grid.setCost(grid.x(end), grid.y(end), 1);
+                hierarchical.cellChanged(grid, grid.x(end), grid.y(end));
+                final var wall = random.nextInt(grid.size());
+                if(wall != start && wall != end) {
+                    grid.setCost(grid.x(wall), grid.y(wall), Grid.IMPASSABLE);
+                    hierarchical.cellChanged(grid, grid.x(wall), grid.y(wall));
+                }
+
+                int[] expected;
+                try {
+                    expected = aStar.findPathFrom(start, end, grid, chebyshevDistance);
+                } catch (final ImpossiblePathException e) {
+                    Assertions.assertThrows(ImpossiblePathException.class, () -> hierarchical.findPathFrom(start, end, grid, chebyshevDistance));
+                    continue;
+                }
+                final var actual = Assertions.assertDoesNotThrow(() -> hierarchical.findPathFrom(start, end, grid, chebyshevDistance));
+
+                MatcherAssert.assertThat(actual.length, greaterThanOrEqualTo(expected.length));
+                var previous = start;
+                for(final var cell : actual) {
+                    Assertions.assertTrue(grid.isPassable(cell));
+                    Assertions.assertTrue(Math.abs(grid.x(cell) - grid.x(previous)) <= 1 && Math.abs(grid.y(cell) - grid.y(previous)) <= 1);
+                    previous = cell;
+                }
+                MatcherAssert.assertThat(previous, is(end));
+            }
+        }
+    }
+
+    @Test
+    void bidirectionalPathfinderFindsPathsAsCheapAsAStar() {
+        final var random = new Random(11);
+        final var aStar = new AStarPathfinder();
+        final var bidirectional = new BidirectionalAStarPathfinder();
+
+        for(int trial = 0; trial < 200; trial++) {
+            final var width = random.nextInt(20) + 2;
+            final var height = random.nextInt(20) + 2;
+            final Graph.UndirectedGraphBuilder<World.Coordinates, Void> builder = Graph.undirectedGraphBuilder();
+            final var matrix = new Graph.Node[width][height];
+            for(int x = 0; x < width; x++) {
+                for(int y = 0; y < height; y++) {
+                    if(random.nextInt(100) < 30) {
+                        continue;
+                    }
+                    final Graph.Node<World.Coordinates> node = builder.addNode(new World.Coordinates(x, y));
+                    matrix[x][y] = node;
+                    if(x > 0 && matrix[x - 1][y] != null) {
+                        builder.connect(matrix[x - 1][y], node, null, null, random.nextInt(3) + 1);
+                    }
+                    if(y > 0 && matrix[x][y - 1] != null) {
+                        builder.connect(matrix[x][y - 1], node, null, null, random.nextInt(3) + 1);
+                    }
+                    if(x > 0 && y > 0 && matrix[x - 1][y - 1] != null) {
+                        builder.connect(matrix[x - 1][y - 1], node, null, null, random.nextInt(3) + 1);
+                    }
+                    if(x > 0 && y < height - 1 && matrix[x - 1][y + 1] != null) {
+                        builder.connect(matrix[x - 1][y + 1], node, null, null, random.nextInt(3) + 1);
+                    }
+                }
+            }
+            final var graph = builder.build();
+            final var nodes = new ArrayList<>(graph.nodes());
+            if(nodes.size() < 2) {
+                continue;
+            }
+            final var start = nodes.get(random.nextInt(nodes.size()));
+            final var end = nodes.get(random.nextInt(nodes.size()));
+            if(start == end) {
+                continue;
+            }
+            final BiFunction<Graph.Node<World.Coordinates>, Graph.Node<World.Coordinates>, Long> chebyshevDistance = (a, b) ->
+                    World.Coordinates.chebyshevDistance(a.value(), b.value());
+
+            List<Graph.Edge<World.Coordinates, Void>> expected;
+            try {
+                expected = aStar.findPathFrom(start, end, graph, chebyshevDistance);
+            } catch (final ImpossiblePathException e) {
+                Assertions.assertThrows(ImpossiblePathException.class, () -> bidirectional.findPathFrom(start, end, graph, chebyshevDistance));
+                continue;
+            }
+            final var actual = Assertions.assertDoesNotThrow(() -> bidirectional.findPathFrom(start, end, graph, chebyshevDistance));
+
+            MatcherAssert.assertThat(actual.stream().mapToLong(Graph.Edge::cost).sum(), is(expected.stream().mapToLong(Graph.Edge::cost).sum()));
+            var previous = start;
+            for(final var edge : actual) {
+                MatcherAssert.assertThat(edge.from(), is(previous));
+                previous = edge.to();
+            }
+            MatcherAssert.assertThat(previous, is(end));
+        }
+    }
+
 }
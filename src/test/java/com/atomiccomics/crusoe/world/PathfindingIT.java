@@ -35,7 +35,7 @@ public class PathfindingIT {
 
         final var moves = grapher.findPathBetween(new World.Coordinates(0, 0), new World.Coordinates(2, 2));
         for(final var move : moves) {
-            engine.updateWorld(w -> w.move(move));
+            engine.updateWorld(w -> w.move(World.PLAYER_ENTITY, move));
         }
 
         MatcherAssert.assertThat(playerPositions.getLast(), is(new World.Coordinates(2, 2)));
@@ -14,6 +14,12 @@ import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.Assertions;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @RunWith(JUnitQuickcheck.class)
 public class WorldTest {
 
@@ -48,6 +54,149 @@ public class WorldTest {
         }
     }
 
+    public record WallEdits(List<World.Coordinates> locations) {
+
+    }
+
+    public static final class WallEditsGenerator extends Generator<WallEdits> {
+
+        public WallEditsGenerator() {
+            super(WallEdits.class);
+        }
+
+        @Override
+        public WallEdits generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            final var count = sourceOfRandomness.nextInt(1, 400);
+            final var locations = new ArrayList<World.Coordinates>(count);
+            for(int i = 0; i < count; i++) {
+                locations.add(new World.Coordinates(sourceOfRandomness.nextInt(0, 199), sourceOfRandomness.nextInt(0, 199)));
+            }
+            return new WallEdits(locations);
+        }
+    }
+
+    public record ColonistMoves(int colonists, List<World.Direction> moves) {
+
+    }
+
+    public static final class ColonistMovesGenerator extends Generator<ColonistMoves> {
+
+        public ColonistMovesGenerator() {
+            super(ColonistMoves.class);
+        }
+
+        @Override
+        public ColonistMoves generate(SourceOfRandomness sourceOfRandomness, GenerationStatus generationStatus) {
+            final var count = sourceOfRandomness.nextInt(1, 500);
+            final var moves = new ArrayList<World.Direction>(count);
+            for(int i = 0; i < count; i++) {
+                moves.add(sourceOfRandomness.choose(World.Direction.values()));
+            }
+            return new ColonistMoves(sourceOfRandomness.nextInt(1, 150), moves);
+        }
+    }
+
+    @Property
+    public void colonistsNeverShareATile(@From(ColonistMovesGenerator.class) final ColonistMoves script) {
+        final var state = new World.WorldState();
+        state.process(new World(state).resize(new World.Dimensions(16, 16)));
+
+        /* Crowd them into one corner, so plenty of moves are blocked by someone else */
+        final var positions = new HashMap<Integer, World.Coordinates>();
+        for(int i = 0; i < script.colonists(); i++) {
+            final var location = new World.Coordinates(i % 12, i / 12);
+            final var spawned = new World(state).spawnColonistAt(location);
+            positions.put(((PlayerMoved)spawned.get(0).payload()).entity(), location);
+            state.process(spawned);
+        }
+
+        var entity = 0;
+        for(final var direction : script.moves()) {
+            entity = entity % script.colonists() + 1;
+            final var from = positions.get(entity);
+            final var to = from.x() + dx(direction) < 0 || from.y() + dy(direction) < 0 ? null : from.moveTowards(direction);
+            final var expectedLegal = to != null && state.dimensions().contains(to) && !positions.containsValue(to);
+            try {
+                state.process(new World(state).move(entity, direction));
+                MatcherAssert.assertThat(expectedLegal, is(true));
+                positions.put(entity, to);
+            } catch (final IllegalStateException | IllegalArgumentException e) {
+                MatcherAssert.assertThat(expectedLegal, is(false));
+            }
+            MatcherAssert.assertThat(state.entities().occupied(), is(Set.copyOf(positions.values())));
+        }
+        for(final var position : positions.entrySet()) {
+            MatcherAssert.assertThat(state.entities().get(position.getKey()).position(), is(position.getValue()));
+        }
+    }
+
+    @Property
+    public void tryingToMoveMovesLikeMovingOrDoesNothing(@From(ColonistMovesGenerator.class) final ColonistMoves script) {
+        final var state = new World.WorldState();
+        state.process(new World(state).resize(new World.Dimensions(16, 16)));
+        for(int i = 0; i < script.colonists(); i++) {
+            state.process(new World(state).spawnColonistAt(new World.Coordinates(i % 12, i / 12)));
+        }
+
+        var entity = 0;
+        for(final var direction : script.moves()) {
+            entity = entity % script.colonists() + 1;
+            final var from = state.entities().get(entity).position();
+            final var mover = entity;
+            final var attempted = new World(state).tryMove(entity, from, direction);
+            try {
+                MatcherAssert.assertThat(attempted, is(new World(state).move(mover, direction)));
+            } catch (final IllegalStateException | IllegalArgumentException e) {
+                MatcherAssert.assertThat(attempted, is(List.of()));
+            }
+            state.process(attempted);
+
+            /* A step issued from somewhere the entity has since left is dropped */
+            if(!attempted.isEmpty()) {
+                MatcherAssert.assertThat(new World(state).tryMove(entity, from, direction), is(List.of()));
+            }
+        }
+    }
+
+    private static int dx(final World.Direction direction) {
+        return switch(direction) {
+            case WEST, NORTHWEST, SOUTHWEST -> -1;
+            case EAST, NORTHEAST, SOUTHEAST -> 1;
+            default -> 0;
+        };
+    }
+
+    private static int dy(final World.Direction direction) {
+        return switch(direction) {
+            case SOUTH, SOUTHEAST, SOUTHWEST -> -1;
+            case NORTH, NORTHEAST, NORTHWEST -> 1;
+            default -> 0;
+        };
+    }
+
+    @Property
+    public void wallSnapshotsMatchTheWallsBuiltSoFar(@From(WallEditsGenerator.class) final WallEdits edits) {
+        final var state = new World.WorldState();
+        state.process(new World(state).resize(new World.Dimensions(200, 200)));
+
+        final var expected = new HashSet<World.Coordinates>();
+        final var snapshots = new ArrayList<Set<World.Coordinates>>();
+        final var expectedSnapshots = new ArrayList<Set<World.Coordinates>>();
+        for(final var location : edits.locations()) {
+            if(expected.remove(location)) {
+                state.process(new World(state).destroyWallAt(location));
+            } else {
+                expected.add(location);
+                state.process(new World(state).buildWallAt(location));
+            }
+            snapshots.add(state.walls());
+            expectedSnapshots.add(Set.copyOf(expected));
+        }
+
+        MatcherAssert.assertThat(state.walls(), is(expected));
+        MatcherAssert.assertThat(snapshots, is(expectedSnapshots));
+    }
+
     @Property
     public void worldNeverContainsWallsOutsideBoundsAfterResizing(@From(DimensionPairGenerator.class) final DimensionPair pair) {
         final var state = new World.WorldState();
@@ -78,13 +227,31 @@ public class WorldTest {
         Assertions.assertTrue(state.dimensions().contains(state.player().position()));
     }
 
+    @Property
+    public void colonistsSqueezedInByResizingStillStandApart(@From(DimensionPairGenerator.class) final DimensionPair pair) {
+        final var state = new World.WorldState();
+        state.process(new World(state).resize(pair.larger));
+
+        /* A column just past the new right edge, all pushed onto the same few tiles */
+        final var count = Math.min(20, pair.larger().height());
+        for(int y = 0; y < count; y++) {
+            state.process(new World(state).spawnColonistAt(new World.Coordinates(pair.larger().width() - 1, pair.larger().height() - 1 - y)));
+        }
+        state.process(new World(state).resize(pair.smaller));
+
+        final var positions = new HashSet<World.Coordinates>();
+        state.entities().forEach((player, entity) -> positions.add(player.position()));
+        MatcherAssert.assertThat(positions.size(), is((int)Math.min(count, (long)pair.smaller().width() * pair.smaller().height())));
+        Assertions.assertTrue(positions.stream().allMatch(state.dimensions()::contains));
+    }
+
     @Property
     public void playerFacingGivenDirectionAfterTurning(final World.Direction direction) {
         final var state = new World.WorldState();
         state.process(new World(state).resize(new World.Dimensions(64, 64)));
         state.process(new World(state).spawnPlayerAt(new World.Coordinates(32, 32)));
 
-        state.process(new World(state).turn(direction));
+        state.process(new World(state).turn(World.PLAYER_ENTITY, direction));
 
         MatcherAssert.assertThat(state.player().orientation(), is(direction));
     }